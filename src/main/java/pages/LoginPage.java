@@ -8,8 +8,12 @@ import org.openqa.selenium.support.ui.WebDriverWait;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.By;
+import org.openqa.selenium.SearchContext;
 import org.openqa.selenium.Alert;
 import org.openqa.selenium.NoAlertPresentException;
+import utils.ImpactRecorder;
+import utils.ResilientInteraction;
+
 import java.time.Duration;
 
 /**
@@ -20,11 +24,13 @@ public class LoginPage {
 
     private WebDriver driver;
     private WebDriverWait wait;
+    private ResilientInteraction interactions;
 
     // Constructor
     public LoginPage(WebDriver driver) {
         this.driver = driver;
         this.wait = new WebDriverWait(driver, Duration.ofSeconds(10));
+        this.interactions = new ResilientInteraction();
         PageFactory.initElements(driver, this);
     }
 
@@ -41,7 +47,10 @@ public class LoginPage {
     @FindBy(xpath = "//span[contains(@class, 'eye-icon') or contains(@class, 'password-toggle')]")
     private WebElement passwordVisibilityToggle;
 
-    @FindBy(xpath = "//div[contains(@class, 'error-message') or contains(@class, 'alert')]")
+    // Shared with LoginPagePerformance so the latency probe times the same element
+    static final String ERROR_MESSAGE_XPATH = "//div[contains(@class, 'error-message') or contains(@class, 'alert')]";
+
+    @FindBy(xpath = ERROR_MESSAGE_XPATH)
     private WebElement errorMessage;
 
     @FindBy(xpath = "//button[contains(text(), 'Allow') or contains(text(), 'Reload')]")
@@ -72,9 +81,10 @@ public class LoginPage {
         "button:contains('Sign In')"
     };
 
+    // Searched only next to the password field, see findPasswordToggle()
     private final String EYE_ICON_LOCATORS[] = {
         "[class*='eye']",
-        "[class*='toggle']", 
+        "[class*='password-toggle']",
         "[class*='visibility']",
         "i[class*='fa-eye']"
     };
@@ -84,6 +94,7 @@ public class LoginPage {
      * This method attempts to handle the notification permission requirement
      */
     public void handleNotificationPermission() {
+        ImpactRecorder.touch("handleNotificationPermission", "allowNotificationButton");
         try {
             Thread.sleep(2000); // Wait for notification dialog to appear
 
@@ -112,6 +123,7 @@ public class LoginPage {
      * Handle notification permission using JavaScript
      */
     private void handleNotificationWithJS() {
+        ImpactRecorder.touch("handleNotificationWithJS");
         try {
             JavascriptExecutor js = (JavascriptExecutor) driver;
 
@@ -141,17 +153,16 @@ public class LoginPage {
      * Find User ID input field using multiple locator strategies
      */
     private WebElement findUserIdInput() {
+        ImpactRecorder.touch("findUserIdInput", "userIdInput", "USER_ID_LOCATORS");
         // Try primary locator first
         try {
+            userIdInput.isEnabled(); // Resolve the lazy PageFactory proxy so a missing element falls through
             return userIdInput;
         } catch (Exception e) {
             // Try alternative locators
-            for (String locator : USER_ID_LOCATORS) {
-                try {
-                    return driver.findElement(By.cssSelector(locator));
-                } catch (Exception ignore) {
-                    // Continue to next locator
-                }
+            WebElement fallback = findFirstImmediately(driver, USER_ID_LOCATORS);
+            if (fallback != null) {
+                return fallback;
             }
             throw new RuntimeException("User ID input field not found with any locator strategy");
         }
@@ -161,15 +172,14 @@ public class LoginPage {
      * Find Password input field using multiple locator strategies
      */
     private WebElement findPasswordInput() {
+        ImpactRecorder.touch("findPasswordInput", "passwordInput", "PASSWORD_LOCATORS");
         try {
+            passwordInput.isEnabled(); // Resolve the lazy PageFactory proxy so a missing element falls through
             return passwordInput;
         } catch (Exception e) {
-            for (String locator : PASSWORD_LOCATORS) {
-                try {
-                    return driver.findElement(By.cssSelector(locator));
-                } catch (Exception ignore) {
-                    // Continue to next locator
-                }
+            WebElement fallback = findFirstImmediately(driver, PASSWORD_LOCATORS);
+            if (fallback != null) {
+                return fallback;
             }
             throw new RuntimeException("Password input field not found with any locator strategy");
         }
@@ -179,15 +189,14 @@ public class LoginPage {
      * Find Login button using multiple locator strategies
      */
     private WebElement findLoginButton() {
+        ImpactRecorder.touch("findLoginButton", "loginButton", "LOGIN_BUTTON_LOCATORS");
         try {
+            loginButton.isEnabled(); // Resolve the lazy PageFactory proxy so a missing element falls through
             return loginButton;
         } catch (Exception e) {
-            for (String locator : LOGIN_BUTTON_LOCATORS) {
-                try {
-                    return driver.findElement(By.cssSelector(locator));
-                } catch (Exception ignore) {
-                    // Continue to next locator
-                }
+            WebElement fallback = findFirstImmediately(driver, LOGIN_BUTTON_LOCATORS);
+            if (fallback != null) {
+                return fallback;
             }
             throw new RuntimeException("Login button not found with any locator strategy");
         }
@@ -195,19 +204,48 @@ public class LoginPage {
 
     /**
      * Find Password visibility toggle using multiple locator strategies
+     * Fallbacks are only searched around the password field, so a generic class name cannot
+     * match an unrelated control elsewhere on the page
      */
     private WebElement findPasswordToggle() {
+        ImpactRecorder.touch("findPasswordToggle", "passwordVisibilityToggle", "EYE_ICON_LOCATORS");
         try {
+            passwordVisibilityToggle.isEnabled(); // Resolve the lazy PageFactory proxy so a missing element falls through
             return passwordVisibilityToggle;
         } catch (Exception e) {
-            for (String locator : EYE_ICON_LOCATORS) {
+            WebElement passwordField = findPasswordInput();
+            for (String container : new String[] {"./..", "./../.."}) {
+                WebElement fallback = findFirstImmediately(passwordField.findElement(By.xpath(container)), EYE_ICON_LOCATORS);
+                if (fallback != null) {
+                    return fallback;
+                }
+            }
+            throw new RuntimeException("Password visibility toggle not found with any locator strategy");
+        }
+    }
+
+    /**
+     * Try fallback locators in order with the implicit wait switched off, so every miss
+     * costs one lookup instead of a full implicit wait
+     * @param context - driver or element to search in
+     * @param locators - CSS selectors to try
+     * @return first element found, or null if none matched
+     */
+    private WebElement findFirstImmediately(SearchContext context, String[] locators) {
+        ImpactRecorder.touch("findFirstImmediately");
+        Duration implicitWait = driver.manage().timeouts().getImplicitWaitTimeout();
+        driver.manage().timeouts().implicitlyWait(Duration.ZERO);
+        try {
+            for (String locator : locators) {
                 try {
-                    return driver.findElement(By.cssSelector(locator));
+                    return context.findElement(By.cssSelector(locator));
                 } catch (Exception ignore) {
                     // Continue to next locator
                 }
             }
-            throw new RuntimeException("Password visibility toggle not found with any locator strategy");
+            return null;
+        } finally {
+            driver.manage().timeouts().implicitlyWait(implicitWait);
         }
     }
 
@@ -216,11 +254,12 @@ public class LoginPage {
      * @param userId - user ID to enter
      */
     public void enterUserId(String userId) {
+        ImpactRecorder.touch("enterUserId");
         try {
-            WebElement userIdField = findUserIdInput();
-            wait.until(ExpectedConditions.elementToBeClickable(userIdField));
-            userIdField.clear();
-            userIdField.sendKeys(userId);
+            interactions.perform("enter User ID", this::findUserIdInput, userIdField -> {
+                userIdField.clear();
+                userIdField.sendKeys(userId);
+            });
         } catch (Exception e) {
             throw new RuntimeException("Failed to enter User ID: " + e.getMessage());
         }
@@ -231,11 +270,12 @@ public class LoginPage {
      * @param password - password to enter
      */
     public void enterPassword(String password) {
+        ImpactRecorder.touch("enterPassword");
         try {
-            WebElement passwordField = findPasswordInput();
-            wait.until(ExpectedConditions.elementToBeClickable(passwordField));
-            passwordField.clear();
-            passwordField.sendKeys(password);
+            interactions.perform("enter Password", this::findPasswordInput, passwordField -> {
+                passwordField.clear();
+                passwordField.sendKeys(password);
+            });
         } catch (Exception e) {
             throw new RuntimeException("Failed to enter Password: " + e.getMessage());
         }
@@ -245,10 +285,9 @@ public class LoginPage {
      * Click login button
      */
     public void clickLoginButton() {
+        ImpactRecorder.touch("clickLoginButton");
         try {
-            WebElement loginBtn = findLoginButton();
-            wait.until(ExpectedConditions.elementToBeClickable(loginBtn));
-            loginBtn.click();
+            interactions.perform("click Login button", this::findLoginButton, WebElement::click);
         } catch (Exception e) {
             throw new RuntimeException("Failed to click Login button: " + e.getMessage());
         }
@@ -258,10 +297,9 @@ public class LoginPage {
      * Click password visibility toggle (eye icon)
      */
     public void clickPasswordVisibilityToggle() {
+        ImpactRecorder.touch("clickPasswordVisibilityToggle");
         try {
-            WebElement toggle = findPasswordToggle();
-            wait.until(ExpectedConditions.elementToBeClickable(toggle));
-            toggle.click();
+            interactions.perform("click password visibility toggle", this::findPasswordToggle, WebElement::click);
         } catch (Exception e) {
             throw new RuntimeException("Failed to click password visibility toggle: " + e.getMessage());
         }
@@ -272,6 +310,7 @@ public class LoginPage {
      * @return true if login button is enabled, false otherwise
      */
     public boolean isLoginButtonEnabled() {
+        ImpactRecorder.touch("isLoginButtonEnabled");
         try {
             WebElement loginBtn = findLoginButton();
             return loginBtn.isEnabled();
@@ -285,6 +324,7 @@ public class LoginPage {
      * @return true if password is masked, false if visible
      */
     public boolean isPasswordMasked() {
+        ImpactRecorder.touch("isPasswordMasked");
         try {
             WebElement passwordField = findPasswordInput();
             String inputType = passwordField.getAttribute("type");
@@ -299,6 +339,7 @@ public class LoginPage {
      * @return error message text or empty string if no error
      */
     public String getErrorMessage() {
+        ImpactRecorder.touch("getErrorMessage", "errorMessage");
         try {
             wait.until(ExpectedConditions.visibilityOf(errorMessage));
             return errorMessage.getText();
@@ -328,6 +369,7 @@ public class LoginPage {
      * @return true if error message is visible, false otherwise
      */
     public boolean isErrorMessageDisplayed() {
+        ImpactRecorder.touch("isErrorMessageDisplayed");
         return !getErrorMessage().isEmpty();
     }
 
@@ -335,6 +377,7 @@ public class LoginPage {
      * Clear all input fields
      */
     public void clearAllFields() {
+        ImpactRecorder.touch("clearAllFields");
         try {
             findUserIdInput().clear();
             findPasswordInput().clear();
@@ -348,6 +391,7 @@ public class LoginPage {
      * @return current page title
      */
     public String getPageTitle() {
+        ImpactRecorder.touch("getPageTitle");
         return driver.getTitle();
     }
 
@@ -356,6 +400,7 @@ public class LoginPage {
      * @return true if page contains login elements, false otherwise
      */
     public boolean isLoginPageLoaded() {
+        ImpactRecorder.touch("isLoginPageLoaded");
         try {
             findUserIdInput();
             findPasswordInput(); 
@@ -372,6 +417,7 @@ public class LoginPage {
      * @param password - password to enter
      */
     public void performLogin(String userId, String password) {
+        ImpactRecorder.touch("performLogin");
         enterUserId(userId);
         enterPassword(password);
         clickLoginButton();
@@ -381,15 +427,25 @@ public class LoginPage {
      * Wait for page to load completely
      */
     public void waitForPageLoad() {
+        ImpactRecorder.touch("waitForPageLoad");
         wait.until(driver -> ((JavascriptExecutor) driver)
             .executeScript("return document.readyState").equals("complete"));
     }
 
+    /**
+     * Get number of interactions retried after stale elements or intercepted clicks
+     * @return retry count for this page instance
+     */
+    public long getInteractionRetryCount() {
+        return interactions.getRetryCount();
+    }
+
     /**
      * Check if User ID field is empty
      * @return true if User ID field is empty, false otherwise
      */
     public boolean isUserIdFieldEmpty() {
+        ImpactRecorder.touch("isUserIdFieldEmpty");
         try {
             WebElement userIdField = findUserIdInput();
             String value = userIdField.getAttribute("value");
@@ -404,6 +460,7 @@ public class LoginPage {
      * @return true if Password field is empty, false otherwise
      */
     public boolean isPasswordFieldEmpty() {
+        ImpactRecorder.touch("isPasswordFieldEmpty");
         try {
             WebElement passwordField = findPasswordInput();
             String value = passwordField.getAttribute("value");
@@ -418,6 +475,7 @@ public class LoginPage {
      * @return true if both User ID and Password fields are empty, false otherwise
      */
     public boolean areBothFieldsEmpty() {
+        ImpactRecorder.touch("areBothFieldsEmpty");
         return isUserIdFieldEmpty() && isPasswordFieldEmpty();
     }
 }
\ No newline at end of file
@@ -0,0 +1,209 @@
+package pages;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chromium.HasCdp;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Performance timing API for the Janitri Login Page
+ * Reads Navigation Timing and Paint Timing entries through JavascriptExecutor and measures
+ * interaction latencies on top of LoginPage. All values are milliseconds on the browser clock.
+ */
+public class LoginPagePerformance {
+
+    // Metric names, also used as budget and history keys
+    public static final String TTFB = "ttfb";
+    public static final String DOM_CONTENT_LOADED = "domContentLoaded";
+    public static final String FIRST_CONTENTFUL_PAINT = "firstContentfulPaint";
+    public static final String FORM_INTERACTIVE = "formInteractive";
+    public static final String CLICK_TO_ERROR = "clickToError";
+
+    private static final String NAVIGATION_TIMING_SCRIPT =
+        "var nav = performance.getEntriesByType('navigation')[0];" +
+        "var result = {};" +
+        "if (nav) {" +
+        "  result.ttfb = nav.responseStart;" +
+        "  result.domContentLoaded = nav.domContentLoadedEventEnd;" +
+        "} else {" +
+        "  var t = performance.timing;" +
+        "  result.ttfb = t.responseStart - t.navigationStart;" +
+        "  result.domContentLoaded = t.domContentLoadedEventEnd - t.navigationStart;" +
+        "}" +
+        "var fcp = performance.getEntriesByName('first-contentful-paint')[0];" +
+        "result.firstContentfulPaint = fcp ? fcp.startTime : -1;" +
+        "return result;";
+
+    // Form is usable once both inputs are rendered and enabled and the login button exists
+    private static final String FORM_READY_FUNCTION =
+        "function () {" +
+        "  var user = document.querySelector(\"#userID, input[type='text']\");" +
+        "  var password = document.querySelector(\"#password, input[type='password']\");" +
+        "  var button = document.querySelector(\"#loginBtn, button[type='submit'], input[type='submit']\");" +
+        "  return !!(user && password && button && !user.disabled && !password.disabled" +
+        "    && user.offsetParent !== null && password.offsetParent !== null);" +
+        "}";
+
+    // Runs before any page script and stamps the first moment the form is usable, checked on
+    // every DOM mutation and animation frame so stylesheet-driven visibility is seen too
+    private static final String FORM_READY_OBSERVER_SCRIPT =
+        "(function () {" +
+        "  var isReady = " + FORM_READY_FUNCTION + ";" +
+        "  window.__loginFormReadyAt = -1;" +
+        "  function check() {" +
+        "    if (window.__loginFormReadyAt < 0 && isReady()) {" +
+        "      window.__loginFormReadyAt = performance.now();" +
+        "      observer.disconnect();" +
+        "    }" +
+        "    return window.__loginFormReadyAt >= 0;" +
+        "  }" +
+        "  var observer = new MutationObserver(check);" +
+        "  observer.observe(document, { childList: true, subtree: true, attributes: true });" +
+        "  (function frame() { if (!check()) { requestAnimationFrame(frame); } })();" +
+        "})();";
+
+    // In-page stamp if the observer ran, otherwise the browser time of this first ready check
+    private static final String FORM_READY_SCRIPT =
+        "if (typeof window.__loginFormReadyAt === 'number' && window.__loginFormReadyAt >= 0) {" +
+        "  return window.__loginFormReadyAt;" +
+        "}" +
+        "return (" + FORM_READY_FUNCTION + ")() ? performance.now() : null;";
+
+    // Stamps the first click and the first visible element matching LoginPage's error locator
+    private static final String INSTALL_ERROR_PROBE_SCRIPT =
+        "var probe = { clickAt: -1, errorAt: -1 };" +
+        "window.__loginPerfProbe = probe;" +
+        "var xpath = arguments[0];" +
+        "function errorVisible() {" +
+        "  var nodes = document.evaluate(xpath, document, null, XPathResult.ORDERED_NODE_SNAPSHOT_TYPE, null);" +
+        "  for (var i = 0; i < nodes.snapshotLength; i++) {" +
+        "    var node = nodes.snapshotItem(i);" +
+        "    if (node.offsetParent !== null && node.textContent.trim().length > 0) { return true; }" +
+        "  }" +
+        "  return false;" +
+        "}" +
+        "document.addEventListener('click', function () {" +
+        "  if (probe.clickAt < 0) { probe.clickAt = performance.now(); }" +
+        "}, true);" +
+        "var observer = new MutationObserver(function () {" +
+        "  if (probe.clickAt >= 0 && probe.errorAt < 0 && errorVisible()) {" +
+        "    probe.errorAt = performance.now();" +
+        "    observer.disconnect();" +
+        "  }" +
+        "});" +
+        "observer.observe(document.body, { childList: true, subtree: true, attributes: true, characterData: true });";
+
+    private WebDriver driver;
+    private LoginPage loginPage;
+
+    // Constructor
+    public LoginPagePerformance(WebDriver driver, LoginPage loginPage) {
+        this.driver = driver;
+        this.loginPage = loginPage;
+    }
+
+    /**
+     * Reload the login page and collect page-load timings
+     * formInteractive is stamped inside the page by an observer installed before the page's
+     * own scripts (Chromium, through CDP); elsewhere it is the browser time of the first ready
+     * check after load, which is an upper bound
+     * @return metrics keyed by TTFB, DOM_CONTENT_LOADED, FIRST_CONTENTFUL_PAINT and FORM_INTERACTIVE
+     */
+    public Map<String, Double> measurePageLoad() {
+        String observerId = installFormReadyObserver();
+        Object formReadyAt;
+        try {
+            driver.navigate().refresh();
+
+            WebDriverWait formWait = new WebDriverWait(driver, Duration.ofSeconds(30));
+            formWait.pollingEvery(Duration.ofMillis(50));
+            formReadyAt = formWait.until(d -> ((JavascriptExecutor) d).executeScript(FORM_READY_SCRIPT));
+        } finally {
+            removeFormReadyObserver(observerId);
+        }
+        if (observerId == null) {
+            System.out.println("formInteractive observed after load, value is an upper bound");
+        }
+
+        Map<String, Object> raw = executeForMap(NAVIGATION_TIMING_SCRIPT);
+        Map<String, Double> metrics = new LinkedHashMap<String, Double>();
+        metrics.put(TTFB, toDouble(raw.get(TTFB)));
+        metrics.put(DOM_CONTENT_LOADED, toDouble(raw.get(DOM_CONTENT_LOADED)));
+        metrics.put(FIRST_CONTENTFUL_PAINT, toDouble(raw.get(FIRST_CONTENTFUL_PAINT)));
+        metrics.put(FORM_INTERACTIVE, toDouble(formReadyAt));
+        return metrics;
+    }
+
+    /**
+     * Register the form-ready observer to run on the next document, where CDP is available
+     * @return CDP script identifier, or null if the browser has no CDP
+     */
+    private String installFormReadyObserver() {
+        if (!(driver instanceof HasCdp)) {
+            return null;
+        }
+        try {
+            Map<String, Object> result = ((HasCdp) driver).executeCdpCommand("Page.addScriptToEvaluateOnNewDocument",
+                Collections.<String, Object>singletonMap("source", FORM_READY_OBSERVER_SCRIPT));
+            return String.valueOf(result.get("identifier"));
+        } catch (Exception e) {
+            System.out.println("Form-ready observer not installed: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void removeFormReadyObserver(String observerId) {
+        if (observerId == null) {
+            return;
+        }
+        try {
+            ((HasCdp) driver).executeCdpCommand("Page.removeScriptToEvaluateOnNewDocument",
+                Collections.<String, Object>singletonMap("identifier", observerId));
+        } catch (Exception e) {
+            System.out.println("Form-ready observer not removed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Measure the latency between clicking the login button and an error message appearing
+     * Credentials must already be entered; the click and the error are timed inside the browser,
+     * and the error is the element LoginPage itself reads the error message from
+     * @param timeout - how long to wait for the error message
+     * @return latency in milliseconds, or -1 if no error message appeared in time
+     */
+    public double measureClickToErrorLatency(Duration timeout) {
+        ((JavascriptExecutor) driver).executeScript(INSTALL_ERROR_PROBE_SCRIPT, LoginPage.ERROR_MESSAGE_XPATH);
+        loginPage.clickLoginButton();
+
+        try {
+            new WebDriverWait(driver, timeout)
+                .pollingEvery(Duration.ofMillis(50))
+                .until(d -> toDouble(((JavascriptExecutor) d)
+                    .executeScript("return window.__loginPerfProbe ? window.__loginPerfProbe.errorAt : -1;")) >= 0);
+        } catch (Exception e) {
+            System.out.println("Error message did not appear within " + timeout.toMillis() + " ms");
+            return -1;
+        }
+
+        Map<String, Object> probe = executeForMap("return window.__loginPerfProbe;");
+        return toDouble(probe.get("errorAt")) - toDouble(probe.get("clickAt"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> executeForMap(String script) {
+        Object result = ((JavascriptExecutor) driver).executeScript(script);
+        if (!(result instanceof Map)) {
+            throw new RuntimeException("Performance script returned no timing data");
+        }
+        return (Map<String, Object>) result;
+    }
+
+    private static double toDouble(Object value) {
+        return value instanceof Number ? ((Number) value).doubleValue() : -1;
+    }
+}
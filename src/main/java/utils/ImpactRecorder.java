@@ -0,0 +1,69 @@
+package utils;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records which page-object methods and locators each test touches
+ * Page objects call touch() from their members; the impact listener sets the active test per thread
+ */
+public final class ImpactRecorder {
+
+    // Bucket for members touched outside a test method (e.g. @BeforeMethod setup)
+    public static final String CONFIG_KEY = "@config";
+
+    private static final ThreadLocal<String> currentTest = new ThreadLocal<String>();
+    private static final Map<String, Set<String>> footprints = new ConcurrentHashMap<String, Set<String>>();
+
+    private ImpactRecorder() {
+    }
+
+    /**
+     * Set the test that subsequent touches on this thread belong to
+     * @param testName - qualified test method name, or null for configuration methods
+     */
+    public static void startTest(String testName) {
+        if (testName == null) {
+            currentTest.remove();
+        } else {
+            currentTest.set(testName);
+            footprints.computeIfAbsent(testName, k -> ConcurrentHashMap.newKeySet());
+        }
+    }
+
+    /**
+     * Clear the active test for this thread
+     */
+    public static void endTest() {
+        currentTest.remove();
+    }
+
+    /**
+     * Record that the current test touched the given page-object members
+     * @param members - method or locator field names
+     */
+    public static void touch(String... members) {
+        String key = currentTest.get();
+        if (key == null) {
+            key = CONFIG_KEY;
+        }
+        Set<String> touched = footprints.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet());
+        Collections.addAll(touched, members);
+    }
+
+    /**
+     * Get a sorted snapshot of everything recorded so far
+     * @return map of test name to touched members
+     */
+    public static Map<String, Set<String>> snapshot() {
+        Map<String, Set<String>> copy = new TreeMap<String, Set<String>>();
+        for (Map.Entry<String, Set<String>> entry : footprints.entrySet()) {
+            copy.put(entry.getKey(), new TreeSet<String>(entry.getValue()));
+        }
+        return copy;
+    }
+}
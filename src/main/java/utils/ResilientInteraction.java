@@ -0,0 +1,126 @@
+package utils;
+
+import org.openqa.selenium.ElementClickInterceptedException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.ui.FluentWait;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Interaction layer that survives DOM re-renders
+ * Stale element references and intercepted clicks are retried within a small time budget,
+ * re-resolving the element through the page object's locator chain on every attempt.
+ * The budget bounds the whole interaction: each attempt waits for the element to become
+ * clickable only for the time that is left. Every retry is counted per instance and JVM-wide.
+ *
+ * The budget defaults to 2000 ms and can be changed with -Dinteraction.retryBudgetMs
+ */
+public class ResilientInteraction {
+
+    private static final long RETRY_BUDGET_MS = Long.getLong("interaction.retryBudgetMs", 2000);
+    private static final long INITIAL_BACKOFF_MS = 25;
+    private static final long MAX_BACKOFF_MS = 200;
+    private static final long POLL_MS = 50;
+
+    private static final Map<String, AtomicLong> TOTAL_RETRIES = new ConcurrentHashMap<String, AtomicLong>();
+
+    private final long budgetMs;
+    private final AtomicLong retries = new AtomicLong();
+
+    public ResilientInteraction() {
+        this(RETRY_BUDGET_MS);
+    }
+
+    /**
+     * @param budgetMs - time the whole interaction may take, retries included
+     */
+    ResilientInteraction(long budgetMs) {
+        this.budgetMs = budgetMs;
+    }
+
+    /**
+     * Locate an element, wait until it is clickable and run an action on it
+     * @param description - action name used in logs and errors, e.g. "click Login button"
+     * @param locator - resolves the element, called again after every transient failure
+     * @param action - interaction to perform on the resolved element
+     */
+    public void perform(String description, Supplier<WebElement> locator, Consumer<WebElement> action) {
+        long deadline = System.currentTimeMillis() + budgetMs;
+        long backoff = INITIAL_BACKOFF_MS;
+        int attempt = 1;
+
+        while (true) {
+            try {
+                WebElement element = locator.get();
+                // isDisplayed/isEnabled throw on a stale element instead of letting the wait spin
+                new FluentWait<WebElement>(element)
+                    .withTimeout(Duration.ofMillis(Math.max(0, deadline - System.currentTimeMillis())))
+                    .pollingEvery(Duration.ofMillis(POLL_MS))
+                    .until(candidate -> candidate.isDisplayed() && candidate.isEnabled());
+                action.accept(element);
+                return;
+            } catch (TimeoutException e) {
+                throw new RuntimeException(description + " failed: element not clickable within "
+                    + budgetMs + " ms", e);
+            } catch (StaleElementReferenceException | ElementClickInterceptedException e) {
+                if (System.currentTimeMillis() + backoff > deadline) {
+                    throw new RuntimeException(description + " failed after " + attempt
+                        + " attempts within " + budgetMs + " ms: " + firstLine(e), e);
+                }
+                recordRetry(e);
+                System.out.println("Retrying " + description + " after " + e.getClass().getSimpleName()
+                    + " (attempt " + (attempt + 1) + ")");
+                sleep(backoff);
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MS);
+                attempt++;
+            }
+        }
+    }
+
+    /**
+     * @return retries performed through this instance
+     */
+    public long getRetryCount() {
+        return retries.get();
+    }
+
+    /**
+     * @return JVM-wide retry counts keyed by exception type
+     */
+    public static Map<String, Long> getTotalRetryCounts() {
+        Map<String, Long> counts = new TreeMap<String, Long>();
+        for (Map.Entry<String, AtomicLong> entry : TOTAL_RETRIES.entrySet()) {
+            counts.put(entry.getKey(), entry.getValue().get());
+        }
+        return counts;
+    }
+
+    private void recordRetry(WebDriverException e) {
+        retries.incrementAndGet();
+        TOTAL_RETRIES.computeIfAbsent(e.getClass().getSimpleName(), k -> new AtomicLong()).incrementAndGet();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while retrying interaction", e);
+        }
+    }
+
+    private static String firstLine(Exception e) {
+        String message = String.valueOf(e.getMessage());
+        int newline = message.indexOf('\n');
+        return newline < 0 ? message : message.substring(0, newline);
+    }
+}
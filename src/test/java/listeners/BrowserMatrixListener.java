@@ -0,0 +1,167 @@
+package listeners;
+
+import org.testng.IAlterSuiteListener;
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.IReporter;
+import org.testng.ISuite;
+import org.testng.ISuiteResult;
+import org.testng.ITestContext;
+import org.testng.ITestResult;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+import utils.SuiteBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Fans every suite test out across the configured browser matrix in one run
+ * Suites loaded from testng.xml are expanded by SuiteBuilder: each browser/version gets one
+ * TestNG test per unit of capacity, with the class methods sharded between them, and all of
+ * them share the suite's worker pool (parallel="tests").
+ * Test methods in an exclusive group (-Dsuite.exclusiveGroups, default "performance") run alone:
+ * they wait for every other running method to finish and hold back new ones until they are done,
+ * so their timings are not skewed by other browser sessions.
+ * After the run one JUnit-style report per browser is written to {outputDir}/browser-reports.
+ */
+public class BrowserMatrixListener implements IAlterSuiteListener, IInvokedMethodListener, IReporter {
+
+    public static final String BROWSER_PARAMETER = SuiteBuilder.BROWSER_PARAMETER;
+    public static final String VERSION_PARAMETER = SuiteBuilder.VERSION_PARAMETER;
+
+    // Shared by every running method, taken exclusively by tests in an exclusive group;
+    // fair, so a waiting exclusive test is not starved by the methods queued behind it
+    private static final ReentrantReadWriteLock EXCLUSIVE_LOCK = new ReentrantReadWriteLock(true);
+
+    private final Set<String> exclusiveGroups = new HashSet<String>(
+        Arrays.asList(System.getProperty("suite.exclusiveGroups", "performance").split("\\s*,\\s*")));
+
+    @Override
+    public void alter(List<XmlSuite> suites) {
+        for (XmlSuite suite : suites) {
+            // Suites built by SuiteBuilder are already expanded and left untouched
+            SuiteBuilder.fromConfiguration().applyTo(suite);
+        }
+    }
+
+    @Override
+    public void beforeInvocation(IInvokedMethod method, ITestResult testResult) {
+        if (isExclusive(method)) {
+            EXCLUSIVE_LOCK.writeLock().lock();
+        } else {
+            EXCLUSIVE_LOCK.readLock().lock();
+        }
+    }
+
+    @Override
+    public void afterInvocation(IInvokedMethod method, ITestResult testResult) {
+        if (isExclusive(method)) {
+            EXCLUSIVE_LOCK.writeLock().unlock();
+        } else {
+            EXCLUSIVE_LOCK.readLock().unlock();
+        }
+    }
+
+    private boolean isExclusive(IInvokedMethod method) {
+        return method.isTestMethod()
+            && !Collections.disjoint(exclusiveGroups, Arrays.asList(method.getTestMethod().getGroups()));
+    }
+
+    @Override
+    public void generateReport(List<XmlSuite> xmlSuites, List<ISuite> suites, String outputDirectory) {
+        Map<String, List<ITestResult>> resultsByBrowser = new TreeMap<String, List<ITestResult>>();
+        for (ISuite suite : suites) {
+            for (ISuiteResult suiteResult : suite.getResults().values()) {
+                ITestContext context = suiteResult.getTestContext();
+                List<ITestResult> results = resultsByBrowser.computeIfAbsent(browserLabel(context),
+                    k -> new ArrayList<ITestResult>());
+                results.addAll(context.getPassedTests().getAllResults());
+                results.addAll(context.getFailedTests().getAllResults());
+                results.addAll(context.getSkippedTests().getAllResults());
+            }
+        }
+
+        File reportDir = new File(outputDirectory, "browser-reports");
+        for (Map.Entry<String, List<ITestResult>> entry : resultsByBrowser.entrySet()) {
+            try {
+                writeJUnitReport(reportDir, entry.getKey(), entry.getValue());
+            } catch (IOException e) {
+                System.out.println("Browser report for " + entry.getKey() + " not written: " + e.getMessage());
+            }
+        }
+    }
+
+    private String browserLabel(ITestContext context) {
+        XmlTest test = context.getCurrentXmlTest();
+        if ("true".equals(test.getParameter(SuiteBuilder.BROWSERLESS_PARAMETER))) {
+            return "browserless";
+        }
+        String browser = test.getParameter(BROWSER_PARAMETER);
+        if (browser == null) {
+            browser = System.getProperty(BROWSER_PARAMETER, "chrome");
+        }
+        String version = test.getParameter(VERSION_PARAMETER);
+        return version == null ? browser : browser + "-" + version;
+    }
+
+    private void writeJUnitReport(File reportDir, String browser, List<ITestResult> results) throws IOException {
+        int failures = 0;
+        int skipped = 0;
+        long start = Long.MAX_VALUE;
+        long end = 0;
+        for (ITestResult result : results) {
+            if (result.getStatus() == ITestResult.FAILURE) {
+                failures++;
+            } else if (result.getStatus() == ITestResult.SKIP) {
+                skipped++;
+            }
+            start = Math.min(start, result.getStartMillis());
+            end = Math.max(end, result.getEndMillis());
+        }
+        double wallSeconds = results.isEmpty() ? 0 : (end - start) / 1000.0;
+
+        Files.createDirectories(reportDir.toPath());
+        File reportFile = new File(reportDir, "TEST-" + browser + ".xml");
+        try (Writer writer = Files.newBufferedWriter(reportFile.toPath(), StandardCharsets.UTF_8)) {
+            writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+            writer.write(String.format(Locale.ROOT,
+                "<testsuite name=\"%s\" tests=\"%d\" failures=\"%d\" skipped=\"%d\" time=\"%.3f\">\n",
+                escape(browser), results.size(), failures, skipped, wallSeconds));
+            for (ITestResult result : results) {
+                writer.write(String.format(Locale.ROOT,
+                    "  <testcase classname=\"%s\" name=\"%s\" time=\"%.3f\"",
+                    escape(result.getTestClass().getName()), escape(result.getMethod().getMethodName()),
+                    (result.getEndMillis() - result.getStartMillis()) / 1000.0));
+                if (result.getStatus() == ITestResult.FAILURE) {
+                    String message = result.getThrowable() == null ? "" : String.valueOf(result.getThrowable().getMessage());
+                    writer.write(">\n    <failure message=\"" + escape(message) + "\"/>\n  </testcase>\n");
+                } else if (result.getStatus() == ITestResult.SKIP) {
+                    writer.write(">\n    <skipped/>\n  </testcase>\n");
+                } else {
+                    writer.write("/>\n");
+                }
+            }
+            writer.write("</testsuite>\n");
+        }
+        System.out.println(String.format("Browser report %s: %d tests, %d failed, %d skipped, %.1fs wall clock",
+            reportFile.getPath(), results.size(), failures, skipped, wallSeconds));
+    }
+
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+}
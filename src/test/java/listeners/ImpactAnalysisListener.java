@@ -0,0 +1,111 @@
+package listeners;
+
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestContext;
+import org.testng.ITestResult;
+import utils.ImpactAnalyzer;
+import utils.ImpactRecorder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * TestNG listener for selective test execution based on page-object change impact
+ * Records the page-object members each test touches and, on the next run, only schedules
+ * tests whose footprint intersects the git diff since the recorded commit
+ *
+ * Run the full suite on demand with: mvn test -Dimpact.full=true
+ */
+public class ImpactAnalysisListener implements IMethodInterceptor, IInvokedMethodListener, ISuiteListener {
+
+    private final ImpactAnalyzer analyzer = new ImpactAnalyzer(ImpactAnalyzer.DEFAULT_MAP_FILE);
+    private final Set<String> scheduledTests = ConcurrentHashMap.newKeySet();
+    private final Set<String> passedTests = ConcurrentHashMap.newKeySet();
+    private final Set<String> unverifiedTests = ConcurrentHashMap.newKeySet();
+    private volatile boolean mapLoaded;
+
+    @Override
+    public void onStart(ISuite suite) {
+        mapLoaded = analyzer.load();
+    }
+
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+        List<IMethodInstance> selected = select(methods);
+        for (IMethodInstance method : selected) {
+            scheduledTests.add(method.getMethod().getQualifiedName());
+        }
+        return selected;
+    }
+
+    private List<IMethodInstance> select(List<IMethodInstance> methods) {
+        if (Boolean.getBoolean("impact.full")) {
+            System.out.println("Impact analysis disabled, running full suite");
+            return methods;
+        }
+        if (!mapLoaded) {
+            System.out.println("No impact map from a previous run, running full suite");
+            return methods;
+        }
+
+        List<String> candidates = new ArrayList<String>();
+        for (IMethodInstance method : methods) {
+            candidates.add(method.getMethod().getQualifiedName());
+        }
+
+        Set<String> selected;
+        try {
+            selected = analyzer.selectTests(candidates);
+        } catch (IOException e) {
+            System.out.println("Impact analysis failed, running full suite: " + e.getMessage());
+            return methods;
+        }
+
+        List<IMethodInstance> affected = new ArrayList<IMethodInstance>();
+        for (IMethodInstance method : methods) {
+            if (selected.contains(method.getMethod().getQualifiedName())) {
+                affected.add(method);
+            }
+        }
+        return affected;
+    }
+
+    @Override
+    public void beforeInvocation(IInvokedMethod method, ITestResult testResult) {
+        if (method.isTestMethod()) {
+            ImpactRecorder.startTest(method.getTestMethod().getQualifiedName());
+        } else {
+            ImpactRecorder.startTest(null);
+        }
+    }
+
+    @Override
+    public void afterInvocation(IInvokedMethod method, ITestResult testResult) {
+        if (method.isTestMethod()) {
+            String testName = method.getTestMethod().getQualifiedName();
+            // Any invocation that did not pass (failure, skip) keeps the test pending
+            if (testResult.getStatus() == ITestResult.SUCCESS) {
+                passedTests.add(testName);
+            } else {
+                unverifiedTests.add(testName);
+            }
+        }
+        ImpactRecorder.endTest();
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        Set<String> verified = new HashSet<String>(passedTests);
+        verified.removeAll(unverifiedTests);
+        analyzer.save(ImpactRecorder.snapshot(), scheduledTests, verified);
+    }
+}
@@ -0,0 +1,25 @@
+package listeners;
+
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import utils.ResilientInteraction;
+
+import java.util.Map;
+
+/**
+ * Reports the JVM-wide stale/intercepted interaction retries at suite end
+ * Rising counts point at re-rendering UI that tests only pass thanks to the retries
+ */
+public class InteractionRetryListener implements ISuiteListener {
+
+    @Override
+    public void onFinish(ISuite suite) {
+        Map<String, Long> retries = ResilientInteraction.getTotalRetryCounts();
+        long total = 0;
+        for (long count : retries.values()) {
+            total += count;
+        }
+        System.out.println("Interaction retries in suite '" + suite.getName() + "': " + total
+            + (retries.isEmpty() ? "" : " " + retries));
+    }
+}
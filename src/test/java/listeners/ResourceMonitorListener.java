@@ -0,0 +1,40 @@
+package listeners;
+
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestResult;
+import tests.BaseTest;
+import utils.BrowserResourceMonitor;
+import utils.RemoteDriverFactory;
+
+/**
+ * TestNG listener that attributes browser resource usage to tests
+ * Peak process memory (PSS)/CPU and the JS heap are collected per test method; at suite end leftover
+ * driver and browser processes are killed, batched grid sessions that were never handed out
+ * are quit, and the usage report is written
+ */
+public class ResourceMonitorListener implements IInvokedMethodListener, ISuiteListener {
+
+    @Override
+    public void beforeInvocation(IInvokedMethod method, ITestResult testResult) {
+        if (method.isTestMethod()) {
+            BrowserResourceMonitor.startTest(BaseTest.getDriver(), method.getTestMethod().getQualifiedName());
+        }
+    }
+
+    @Override
+    public void afterInvocation(IInvokedMethod method, ITestResult testResult) {
+        if (method.isTestMethod()) {
+            BrowserResourceMonitor.endTest(BaseTest.getDriver());
+        }
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        RemoteDriverFactory.releaseUnused();
+        BrowserResourceMonitor.shutdown();
+        BrowserResourceMonitor.report(suite.getName());
+    }
+}
@@ -0,0 +1,42 @@
+package runner;
+
+import org.testng.TestNG;
+import org.testng.xml.XmlSuite;
+import utils.SuiteBuilder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+
+/**
+ * Runs the suite built by SuiteBuilder without a testng.xml
+ * mvn test-compile exec:java -Dexec.mainClass=runner.SuiteRunner -Dexec.classpathScope=test
+ *
+ * -Dsuite.output=target/generated-testng.xml     also write the generated suite as XML
+ */
+public class SuiteRunner {
+
+    public static void main(String[] args) {
+        XmlSuite suite = SuiteBuilder.fromConfiguration().build();
+
+        String output = System.getProperty("suite.output");
+        if (output != null && !output.trim().isEmpty()) {
+            try {
+                File file = new File(output);
+                if (file.getParentFile() != null) {
+                    Files.createDirectories(file.getParentFile().toPath());
+                }
+                Files.write(file.toPath(), suite.toXml().getBytes(StandardCharsets.UTF_8));
+                System.out.println("Generated suite written to " + file.getPath());
+            } catch (Exception e) {
+                throw new RuntimeException("Failed to write generated suite: " + e.getMessage(), e);
+            }
+        }
+
+        TestNG testng = new TestNG();
+        testng.setXmlSuites(Collections.singletonList(suite));
+        testng.run();
+        System.exit(testng.getStatus());
+    }
+}
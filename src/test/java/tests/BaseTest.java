@@ -3,12 +3,22 @@ package tests;
 import io.github.bonigarcia.wdm.WebDriverManager;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeDriverService;
 import org.openqa.selenium.chrome.ChromeOptions;
 import org.openqa.selenium.firefox.FirefoxDriver;
+import org.openqa.selenium.firefox.FirefoxOptions;
+import org.openqa.selenium.firefox.GeckoDriverService;
 import org.openqa.selenium.edge.EdgeDriver;
+import org.openqa.selenium.edge.EdgeDriverService;
+import org.openqa.selenium.edge.EdgeOptions;
+import org.testng.ITestContext;
 import org.testng.annotations.*;
+import org.testng.xml.XmlSuite;
 import pages.LoginPage;
+import utils.BrowserResourceMonitor;
+import utils.RemoteDriverFactory;
 
+import java.io.File;
 import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
@@ -16,12 +26,26 @@ import java.util.Map;
 /**
  * BaseTest class for browser setup and teardown
  * Implements WebDriver initialization and common test configurations
+ * Each test class instance owns its driver, so the same class can run in several
+ * browsers at once when the suite fans out over a browser matrix
  */
 public class BaseTest {
 
-    protected static WebDriver driver;
+    // Driver of the test class running on the current thread, for static access
+    private static final ThreadLocal<WebDriver> CURRENT_DRIVER = new ThreadLocal<WebDriver>();
+
+    // WebDriverManager resolves and downloads drivers through shared caches
+    private static final Object DRIVER_SETUP_LOCK = new Object();
+
+    protected WebDriver driver;
     protected LoginPage loginPage;
 
+    // Browser and requested version, e.g. chrome-116; keys baselines and performance history
+    private String browserLabel;
+
+    // Sessions of this browser the suite runs at the same time
+    private int browserConcurrency;
+
     // Configuration properties
     private static final String BASE_URL = "https://dev-dash.janitri.in";
     private static final int IMPLICIT_WAIT_TIMEOUT = 10;
@@ -29,10 +53,25 @@ public class BaseTest {
 
     /**
      * Setup method to initialize WebDriver before each test class
+     * @param browser - browser from the suite matrix; falls back to -Dbrowser, then chrome
+     * @param browserVersion - optional browser version from the suite matrix
+     * @param capacity - concurrent sessions resolved for this browser by the suite, default 1
+     * @param context - running test, whose suite caps how many of those sessions run at once
      */
-    @BeforeClass
-    public void setUp() {
-        initializeDriver("chrome");
+    @BeforeClass(alwaysRun = true)
+    @Parameters({"browser", "browserVersion", "browserCapacity"})
+    public void setUp(@Optional String browser, @Optional String browserVersion, @Optional("1") String capacity,
+                      ITestContext context) {
+        if (browser == null) {
+            browser = System.getProperty("browser", "chrome");
+        }
+        XmlSuite suite = context.getSuite().getXmlSuite();
+        browserConcurrency = suite.getParallel() == XmlSuite.ParallelMode.NONE
+            ? 1 : Math.max(1, Math.min(Integer.parseInt(capacity), suite.getThreadCount()));
+        browserLabel = browserVersion == null ? browser.toLowerCase() : browser.toLowerCase() + "-" + browserVersion;
+        initializeDriver(browser, browserVersion);
+        CURRENT_DRIVER.set(driver);
+        BrowserResourceMonitor.register(driver);
         configureDriver();
         initializePages();
         navigateToApplication();
@@ -40,13 +79,23 @@ public class BaseTest {
 
     /**
      * Initialize WebDriver based on browser type
+     * With -Dgrid.url the session is created on a remote Grid/standalone server; locally,
+     * driver binaries are passed to each service explicitly instead of through global
+     * system properties, so several browsers can start side by side
      * @param browserType - chrome, firefox, or edge
+     * @param browserVersion - browser version requested from the grid, or null for any
      */
-    private void initializeDriver(String browserType) {
+    private void initializeDriver(String browserType, String browserVersion) {
+        if (browserVersion != null && !RemoteDriverFactory.isEnabled()) {
+            throw new RuntimeException("Browser version " + browserVersion + " needs -Dgrid.url,"
+                + " local runs use the installed " + browserType);
+        }
         switch (browserType.toLowerCase()) {
             case "chrome":
-                WebDriverManager.chromedriver().setup();
                 ChromeOptions chromeOptions = new ChromeOptions();
+                if (browserVersion != null) {
+                    chromeOptions.setBrowserVersion(browserVersion);
+                }
 
                 // Handle notification permissions
                 Map<String, Object> prefs = new HashMap<String, Object>();
@@ -60,17 +109,44 @@ public class BaseTest {
                 chromeOptions.addArguments("--no-sandbox");
                 chromeOptions.addArguments("--disable-dev-shm-usage");
 
-                driver = new ChromeDriver(chromeOptions);
+                if (RemoteDriverFactory.isEnabled()) {
+                    driver = RemoteDriverFactory.create(chromeOptions, browserConcurrency);
+                    break;
+                }
+                driver = new ChromeDriver(new ChromeDriverService.Builder()
+                    .usingDriverExecutable(resolveDriver(WebDriverManager.chromedriver()))
+                    .usingAnyFreePort()
+                    .build(), chromeOptions);
                 break;
 
             case "firefox":
-                WebDriverManager.firefoxdriver().setup();
-                driver = new FirefoxDriver();
+                FirefoxOptions firefoxOptions = new FirefoxOptions();
+                if (browserVersion != null) {
+                    firefoxOptions.setBrowserVersion(browserVersion);
+                }
+                if (RemoteDriverFactory.isEnabled()) {
+                    driver = RemoteDriverFactory.create(firefoxOptions, browserConcurrency);
+                    break;
+                }
+                driver = new FirefoxDriver(new GeckoDriverService.Builder()
+                    .usingDriverExecutable(resolveDriver(WebDriverManager.firefoxdriver()))
+                    .usingAnyFreePort()
+                    .build(), firefoxOptions);
                 break;
 
             case "edge":
-                WebDriverManager.edgedriver().setup();
-                driver = new EdgeDriver();
+                EdgeOptions edgeOptions = new EdgeOptions();
+                if (browserVersion != null) {
+                    edgeOptions.setBrowserVersion(browserVersion);
+                }
+                if (RemoteDriverFactory.isEnabled()) {
+                    driver = RemoteDriverFactory.create(edgeOptions, browserConcurrency);
+                    break;
+                }
+                driver = new EdgeDriver(new EdgeDriverService.Builder()
+                    .usingDriverExecutable(resolveDriver(WebDriverManager.edgedriver()))
+                    .usingAnyFreePort()
+                    .build(), edgeOptions);
                 break;
 
             default:
@@ -78,6 +154,18 @@ public class BaseTest {
         }
     }
 
+    /**
+     * Resolve (and download if needed) the driver binary for the installed browser
+     * @param manager - WebDriverManager for the browser
+     * @return driver executable
+     */
+    private File resolveDriver(WebDriverManager manager) {
+        synchronized (DRIVER_SETUP_LOCK) {
+            manager.avoidExport().setup();
+            return new File(manager.getDownloadedDriverPath());
+        }
+    }
+
     /**
      * Configure WebDriver with timeouts and window settings
      */
@@ -111,11 +199,19 @@ public class BaseTest {
     }
 
     /**
-     * Get WebDriver instance
+     * Get WebDriver instance of the test class running on the current thread
      * @return WebDriver instance
      */
     public static WebDriver getDriver() {
-        return driver;
+        return CURRENT_DRIVER.get();
+    }
+
+    /**
+     * Get the browser of this test class with its requested version, if any
+     * @return lower-case label, e.g. chrome or chrome-116
+     */
+    protected String getBrowserLabel() {
+        return browserLabel;
     }
 
     /**
@@ -128,12 +224,18 @@ public class BaseTest {
 
     /**
      * Teardown method to close WebDriver after each test class
+     * Runs even if setUp failed, and kills driver/browser processes that survive quit()
      */
-    @AfterClass
+    @AfterClass(alwaysRun = true)
     public void tearDown() {
+        if (loginPage != null) {
+            System.out.println("Interaction retries (stale/intercepted): " + loginPage.getInteractionRetryCount());
+        }
         if (driver != null) {
-            driver.quit();
+            // Quits the driver, with the leak check before and the orphan cleanup after
+            BrowserResourceMonitor.release(driver);
         }
+        CURRENT_DRIVER.remove();
     }
 
     /**
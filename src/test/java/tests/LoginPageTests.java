@@ -1,8 +1,19 @@
 package tests;
 
 import org.testng.Assert;
+import org.testng.SkipException;
 import org.testng.annotations.Test;
 import org.testng.annotations.BeforeMethod;
+import pages.LoginPagePerformance;
+import utils.PerformanceBudget;
+import utils.PerformanceHistory;
+import utils.TileDiff;
+import utils.VisualRegression;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Test class for Janitri Login Page functionality
@@ -10,7 +21,8 @@ import org.testng.annotations.BeforeMethod;
  */
 public class LoginPageTests extends BaseTest {
 
-    @BeforeMethod
+    // Runs for every group, otherwise group-filtered runs start tests on an unprepared page
+    @BeforeMethod(alwaysRun = true)
     public void setupTest() {
         // Handle notification permission before each test
         try {
@@ -34,7 +46,7 @@ public class LoginPageTests extends BaseTest {
      * Test Case: Verify login button is disabled when both fields are empty
      * Requirement: testLoginButtonDisabledWhenFieldAreEmpty()
      */
-    @Test(priority = 1, description = "Verify login button is disabled when fields are empty")
+    @Test(priority = 1, groups = {"smoke", "functional"}, description = "Verify login button is disabled when fields are empty")
     public void testLoginButtonDisabledWhenFieldAreEmpty() {
         try {
             // Clear all fields to ensure they are empty
@@ -67,7 +79,7 @@ public class LoginPageTests extends BaseTest {
      * Test Case: Verify password masking/unmasking functionality 
      * Requirement: testPasswordMaskedbutton()
      */
-    @Test(priority = 2, description = "Verify password masking and unmasking toggle functionality")
+    @Test(priority = 2, groups = "functional", description = "Verify password masking and unmasking toggle functionality")
     public void testPasswordMaskedbutton() {
         try {
             // Enter a test password
@@ -127,7 +139,7 @@ public class LoginPageTests extends BaseTest {
      * Test Case: Verify error message is shown for invalid login credentials
      * Requirement: testInvalidLoginShowErrorMsg()
      */
-    @Test(priority = 3, description = "Verify error message appears for invalid login credentials")
+    @Test(priority = 3, groups = {"smoke", "functional"}, description = "Verify error message appears for invalid login credentials")
     public void testInvalidLoginShowErrorMsg() {
         try {
             // Use invalid credentials
@@ -185,7 +197,7 @@ public class LoginPageTests extends BaseTest {
     /**
      * Additional Test: Verify login page elements are present
      */
-    @Test(priority = 4, description = "Verify presence of login page elements")
+    @Test(priority = 4, groups = {"smoke", "functional"}, description = "Verify presence of login page elements")
     public void testLoginPageElementsPresence() {
         try {
             System.out.println("Verifying login page elements presence...");
@@ -216,7 +228,7 @@ public class LoginPageTests extends BaseTest {
     /**
      * Additional Test: Verify login with blank fields
      */
-    @Test(priority = 5, description = "Verify login behavior with blank fields")
+    @Test(priority = 5, groups = "functional", description = "Verify login behavior with blank fields")
     public void testLoginWithBlankFields() {
         try {
             System.out.println("Testing login with blank fields...");
@@ -248,4 +260,173 @@ public class LoginPageTests extends BaseTest {
             Assert.fail("Test failed due to exception: " + e.getMessage());
         }
     }
+
+    /**
+     * Visual Test: Verify login page renders like the baseline with empty fields
+     */
+    @Test(priority = 6, groups = "visual", description = "Verify visual state of the empty login page")
+    public void testLoginPageVisualEmptyState() {
+        try {
+            loginPage.clearAllFields();
+            assertMatchesBaseline("login-empty");
+
+        } catch (Exception e) {
+            System.out.println("❌ TEST FAILED: " + e.getMessage());
+            Assert.fail("Test failed due to exception: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Visual Test: Verify login page renders like the baseline with filled fields and masked password
+     */
+    @Test(priority = 7, groups = "visual", description = "Verify visual state of the filled login page with masked password")
+    public void testLoginPageVisualFilledMaskedState() {
+        try {
+            loginPage.enterUserId("visual_user@test.com");
+            loginPage.enterPassword("VisualPassword123");
+
+            Assert.assertTrue(loginPage.isPasswordMasked(), "Password should be masked before capture");
+            assertMatchesBaseline("login-filled-masked");
+
+        } catch (Exception e) {
+            System.out.println("❌ TEST FAILED: " + e.getMessage());
+            Assert.fail("Test failed due to exception: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Visual Test: Verify login page renders like the baseline with the password unmasked
+     */
+    @Test(priority = 8, groups = "visual", description = "Verify visual state of the login page with unmasked password")
+    public void testLoginPageVisualUnmaskedState() {
+        try {
+            loginPage.enterUserId("visual_user@test.com");
+            loginPage.enterPassword("VisualPassword123");
+
+            try {
+                loginPage.clickPasswordVisibilityToggle();
+                Thread.sleep(500); // Small wait for UI update
+            } catch (RuntimeException toggleException) {
+                System.out.println("⚠️  Password toggle not available, skipping unmasked capture: "
+                    + toggleException.getMessage());
+                throw new SkipException("Password toggle not available, unmasked state not checked", toggleException);
+            }
+
+            assertMatchesBaseline("login-filled-unmasked");
+
+        } catch (SkipException e) {
+            throw e;
+        } catch (Exception e) {
+            System.out.println("❌ TEST FAILED: " + e.getMessage());
+            Assert.fail("Test failed due to exception: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Visual Test: Verify login page renders like the baseline with the invalid login error shown
+     */
+    @Test(priority = 9, groups = "visual", description = "Verify visual state of the login page with error message shown")
+    public void testLoginPageVisualErrorState() {
+        try {
+            loginPage.performLogin("invalid_user@test.com", "InvalidPassword123");
+
+            // Wait a moment for error message to appear
+            Thread.sleep(3000);
+
+            if (!loginPage.isErrorMessageDisplayed()) {
+                System.out.println("⚠️  Error message not rendered, skipping error state capture");
+                throw new SkipException("Error message not rendered, error state not checked");
+            }
+            assertMatchesBaseline("login-error");
+
+        } catch (SkipException e) {
+            throw e;
+        } catch (Exception e) {
+            System.out.println("❌ TEST FAILED: " + e.getMessage());
+            Assert.fail("Test failed due to exception: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Performance Test: Verify page-load timings stay within budget
+     */
+    @Test(priority = 10, groups = "performance", description = "Verify login page load timings are within budget")
+    public void testLoginPageLoadPerformanceBudget() {
+        try {
+            LoginPagePerformance performance = new LoginPagePerformance(driver, loginPage);
+            Map<String, Double> metrics = performance.measurePageLoad();
+            System.out.println("Page load timings: " + metrics);
+
+            new PerformanceHistory("login-page").record(getBrowserLabel(), metrics);
+
+            List<String> violations = loginPageBudget().violations(metrics);
+            Assert.assertTrue(violations.isEmpty(), "Login page load exceeded budget: " + violations);
+
+            System.out.println("✅ TEST PASSED: Login page load timings are within budget");
+
+        } catch (Exception e) {
+            System.out.println("❌ TEST FAILED: " + e.getMessage());
+            Assert.fail("Test failed due to exception: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Performance Test: Verify error message appears within budget after clicking login
+     */
+    @Test(priority = 11, groups = "performance", description = "Verify click-to-error latency for invalid login is within budget")
+    public void testInvalidLoginErrorLatencyBudget() {
+        try {
+            loginPage.enterUserId("invalid_user@test.com");
+            loginPage.enterPassword("InvalidPassword123");
+
+            LoginPagePerformance performance = new LoginPagePerformance(driver, loginPage);
+            double latency = performance.measureClickToErrorLatency(Duration.ofSeconds(10));
+            System.out.println("Click-to-error latency: " + latency + " ms");
+
+            if (latency < 0) {
+                System.out.println("⚠️  Error message not rendered, latency could not be measured");
+                throw new SkipException("Error message not rendered, click-to-error latency not measured");
+            }
+
+            Map<String, Double> metrics = new LinkedHashMap<String, Double>();
+            metrics.put(LoginPagePerformance.CLICK_TO_ERROR, latency);
+            new PerformanceHistory("login-page").record(getBrowserLabel(), metrics);
+
+            List<String> violations = loginPageBudget().violations(metrics);
+            Assert.assertTrue(violations.isEmpty(), "Invalid login feedback exceeded budget: " + violations);
+
+            System.out.println("✅ TEST PASSED: Click-to-error latency is within budget");
+
+        } catch (SkipException e) {
+            throw e;
+        } catch (Exception e) {
+            System.out.println("❌ TEST FAILED: " + e.getMessage());
+            Assert.fail("Test failed due to exception: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Default timing budgets for the login page, overridable with -Dperf.budget.{metric}
+     * @return budget in milliseconds per metric
+     */
+    private PerformanceBudget loginPageBudget() {
+        return new PerformanceBudget()
+            .limit(LoginPagePerformance.TTFB, 800)
+            .limit(LoginPagePerformance.DOM_CONTENT_LOADED, 2500)
+            .limit(LoginPagePerformance.FIRST_CONTENTFUL_PAINT, 2500)
+            .limit(LoginPagePerformance.FORM_INTERACTIVE, 4000)
+            .limit(LoginPagePerformance.CLICK_TO_ERROR, 2000)
+            .withSystemOverrides();
+    }
+
+    /**
+     * Compare the current viewport with the stored baseline for a page state
+     * @param state - baseline name
+     */
+    private void assertMatchesBaseline(String state) {
+        TileDiff.Result result = VisualRegression.checkScreen(driver, getBrowserLabel(), state);
+        Assert.assertTrue(result.matches(),
+            "Login page state '" + state + "' differs from visual baseline: " + result);
+        System.out.println("✅ TEST PASSED: Visual state '" + state + "' matches baseline");
+    }
 }
\ No newline at end of file
@@ -0,0 +1,105 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Browser/version matrix read from system properties
+ * -Dbrowsers=chrome,chrome@116,firefox,edge       browsers and optional versions to cover
+ *                                                  (falls back to -Dbrowser, then chrome);
+ *                                                  versions need -Dgrid.url, local runs use the
+ *                                                  installed browser
+ * -Dbrowser.capacity.chrome=2                      max concurrent sessions per browser
+ *                                                  (default: sized by SuiteBuilder from cores and memory)
+ */
+public class BrowserMatrix {
+
+    // Capacity value meaning "let SuiteBuilder size it"
+    public static final int AUTO_CAPACITY = 0;
+
+    /**
+     * One browser/version cell of the matrix
+     */
+    public static class Entry {
+        private final String browser;
+        private final String version;
+        private final int capacity;
+
+        public Entry(String browser, String version, int capacity) {
+            this.browser = browser;
+            this.version = version;
+            this.capacity = capacity;
+        }
+
+        public String getBrowser() {
+            return browser;
+        }
+
+        /**
+         * @return requested browser version, or null for whatever is installed
+         */
+        public String getVersion() {
+            return version;
+        }
+
+        /**
+         * @return max concurrent sessions, or AUTO_CAPACITY if not configured
+         */
+        public int getCapacity() {
+            return capacity;
+        }
+
+        /**
+         * @param capacity - new max concurrent sessions
+         * @return copy of this entry with the given capacity
+         */
+        public Entry withCapacity(int capacity) {
+            return new Entry(browser, version, capacity);
+        }
+
+        /**
+         * @return label used in test names and report file names, e.g. chrome-116
+         */
+        public String getLabel() {
+            return version == null ? browser : browser + "-" + version;
+        }
+    }
+
+    private BrowserMatrix() {
+    }
+
+    /**
+     * Parse the matrix from -Dbrowsers, or a single cell from -Dbrowser
+     * @return matrix entries, never empty
+     */
+    public static List<Entry> fromSystemProperties() {
+        String spec = System.getProperty("browsers");
+        if (spec == null || spec.trim().isEmpty()) {
+            spec = System.getProperty("browser", "chrome");
+        }
+
+        List<Entry> entries = new ArrayList<Entry>();
+        for (String cell : spec.split(",")) {
+            String trimmed = cell.trim().toLowerCase();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            int at = trimmed.indexOf('@');
+            String browser = at < 0 ? trimmed : trimmed.substring(0, at);
+            String version = at < 0 ? null : trimmed.substring(at + 1);
+            if ("latest".equals(version) || (version != null && version.isEmpty())) {
+                version = null;
+            }
+            if (version != null && !RemoteDriverFactory.isEnabled()) {
+                throw new RuntimeException("Browser version '" + trimmed + "' needs -Dgrid.url: local runs always"
+                    + " start the installed " + browser + ", which would not match a driver for version " + version);
+            }
+            int capacity = Integer.getInteger("browser.capacity." + browser, AUTO_CAPACITY);
+            entries.add(new Entry(browser, version, Math.max(AUTO_CAPACITY, capacity)));
+        }
+        if (entries.isEmpty()) {
+            entries.add(new Entry("chrome", null, AUTO_CAPACITY));
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,577 @@
+package utils;
+
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.HasCapabilities;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chromium.HasCdp;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Browser-side resource monitor for long parallel runs
+ * Every local session is mapped to its driver and browser process tree, whose memory and CPU
+ * are sampled in the background. Memory is the proportional set size (PSS), so pages that
+ * Chrome's processes share are counted once rather than once per process; where PSS is not
+ * readable the summed RSS is used and reported as an upper bound.
+ * The JS heap is read after each test (through CDP on Chromium, performance.memory
+ * elsewhere) on the test thread, so sampling never competes with test commands; garbage is
+ * only collected once per session, right before quit, for the leak check. Sessions whose
+ * heap or process memory keep growing are flagged as leaking, and driver/browser processes
+ * still alive after quit or at suite end are killed.
+ *
+ * -Dmonitor.resources=false     disable monitoring
+ * -Dmonitor.intervalMs=1000     process sampling interval
+ * -Dmonitor.heapLeakMb=50       JS heap growth over a session reported as a leak
+ * -Dmonitor.memoryLeakMb=500    process tree memory growth over a session reported as a leak
+ */
+public final class BrowserResourceMonitor {
+
+    public static final Path REPORT_DIR = Paths.get("target", "resource-usage");
+
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("monitor.resources", "true"));
+    private static final long INTERVAL_MS = Long.getLong("monitor.intervalMs", 1000);
+    private static final long HEAP_LEAK_MB = Long.getLong("monitor.heapLeakMb", 50);
+    private static final long MEMORY_LEAK_MB = Long.getLong("monitor.memoryLeakMb", 500);
+    private static final Duration EXIT_TIMEOUT = Duration.ofSeconds(5);
+    private static final long KB = 1024;
+
+    // Executables that belong to a browser session; anything else the JVM started is left alone
+    private static final List<String> SESSION_EXECUTABLES = Arrays.asList(
+        "chromedriver", "geckodriver", "msedgedriver", "chrome", "chromium", "firefox", "msedge", "brave");
+
+    private static final Map<WebDriver, Session> SESSIONS = new ConcurrentHashMap<WebDriver, Session>();
+    private static final List<TestUsage> RESULTS = Collections.synchronizedList(new ArrayList<TestUsage>());
+    private static final List<String> WARNINGS = Collections.synchronizedList(new ArrayList<String>());
+    private static final Object PEAK_LOCK = new Object();
+    private static long peakTotalMemoryKb;
+    private static int peakConcurrentSessions;
+    // Set once any process had to be measured by RSS, which makes the totals an upper bound
+    private static volatile boolean rssFallback;
+
+    private static final ScheduledExecutorService SAMPLER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "browser-resource-sampler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        if (ENABLED) {
+            SAMPLER.scheduleAtFixedRate(BrowserResourceMonitor::sampleAll, INTERVAL_MS, INTERVAL_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Peak resource usage of one test in one browser session
+     */
+    public static final class TestUsage {
+        private final String testName;
+        private final String browser;
+        private long peakMemoryKb;
+        private double peakCpuPercent;
+        private long jsHeapBytes = -1;
+
+        TestUsage(String testName, String browser) {
+            this.testName = testName;
+            this.browser = browser;
+        }
+
+        public String getTestName() {
+            return testName;
+        }
+
+        public String getBrowser() {
+            return browser;
+        }
+
+        /**
+         * @return peak PSS of the driver and browser processes in KB (RSS where PSS is not
+         * readable), 0 if not measurable
+         */
+        public long getPeakMemoryKb() {
+            return peakMemoryKb;
+        }
+
+        /**
+         * @return peak CPU of the process tree in percent of one core
+         */
+        public double getPeakCpuPercent() {
+            return peakCpuPercent;
+        }
+
+        /**
+         * @return used JS heap after the test in bytes, or -1 if the browser does not expose it
+         */
+        public long getJsHeapBytes() {
+            return jsHeapBytes;
+        }
+    }
+
+    /**
+     * One monitored driver session and the processes that serve it
+     */
+    private static final class Session {
+        final WebDriver driver;
+        final String browser;
+        final ProcessHandle driverProcess;
+        final ProcessHandle browserProcess;
+        final List<Long> heapSamples = new ArrayList<Long>();
+        long firstMemoryKb = -1;
+        long lastMemoryKb;
+        long lastCpuNanos = -1;
+        long lastSampleNanos;
+        TestUsage current;
+
+        Session(WebDriver driver, String browser, ProcessHandle driverProcess, ProcessHandle browserProcess) {
+            this.driver = driver;
+            this.browser = browser;
+            this.driverProcess = driverProcess;
+            this.browserProcess = browserProcess;
+        }
+
+        /**
+         * @return driver, browser and all browser child processes that are still alive
+         */
+        List<ProcessHandle> processTree() {
+            List<ProcessHandle> tree = new ArrayList<ProcessHandle>();
+            if (driverProcess != null && driverProcess.isAlive()) {
+                tree.add(driverProcess);
+            }
+            if (browserProcess != null && browserProcess.isAlive()) {
+                tree.add(browserProcess);
+                browserProcess.descendants().forEach(tree::add);
+            }
+            return tree;
+        }
+
+        synchronized void sample() {
+            List<ProcessHandle> tree = processTree();
+            if (tree.isEmpty()) {
+                return;
+            }
+            long memoryKb = 0;
+            long cpuNanos = 0;
+            for (ProcessHandle process : tree) {
+                memoryKb += Math.max(0, memoryKb(process.pid()));
+                cpuNanos += process.info().totalCpuDuration().map(Duration::toNanos).orElse(0L);
+            }
+            long now = System.nanoTime();
+            double cpuPercent = lastCpuNanos < 0 || now == lastSampleNanos
+                ? 0 : Math.max(0, 100.0 * (cpuNanos - lastCpuNanos) / (now - lastSampleNanos));
+            lastCpuNanos = cpuNanos;
+            lastSampleNanos = now;
+            lastMemoryKb = memoryKb;
+            if (firstMemoryKb < 0) {
+                firstMemoryKb = memoryKb;
+            }
+            if (current != null) {
+                current.peakMemoryKb = Math.max(current.peakMemoryKb, memoryKb);
+                current.peakCpuPercent = Math.max(current.peakCpuPercent, cpuPercent);
+            }
+        }
+    }
+
+    private BrowserResourceMonitor() {
+    }
+
+    /**
+     * Start monitoring a freshly created session
+     * Local process trees are found from the session capabilities; remote sessions only
+     * get JS heap readings
+     * @param driver - new driver session
+     */
+    public static void register(WebDriver driver) {
+        if (!ENABLED || driver == null) {
+            return;
+        }
+        Capabilities capabilities = ((HasCapabilities) driver).getCapabilities();
+        String browser = capabilities.getBrowserName().toLowerCase(Locale.ROOT);
+        ProcessHandle browserProcess = RemoteDriverFactory.isEnabled() ? null : findBrowserProcess(capabilities);
+        ProcessHandle driverProcess = browserProcess == null ? null : browserProcess.parent().orElse(null);
+        if (!RemoteDriverFactory.isEnabled() && browserProcess == null) {
+            System.out.println("Browser process for " + browser + " session not found, only JS heap is monitored");
+        }
+        SESSIONS.put(driver, new Session(driver, browser, driverProcess, browserProcess));
+        synchronized (PEAK_LOCK) {
+            peakConcurrentSessions = Math.max(peakConcurrentSessions, SESSIONS.size());
+        }
+    }
+
+    /**
+     * Begin collecting peak usage for a test on a monitored session
+     * @param driver - session the test runs in
+     * @param testName - qualified test name
+     */
+    public static void startTest(WebDriver driver, String testName) {
+        Session session = driver == null ? null : SESSIONS.get(driver);
+        if (session == null) {
+            return;
+        }
+        synchronized (session) {
+            session.current = new TestUsage(testName, session.browser);
+        }
+        session.sample();
+    }
+
+    /**
+     * Finish a test: take a last process sample and read the JS heap
+     * Must be called on the test thread, as it sends commands to the driver
+     * @param driver - session the test ran in
+     */
+    public static void endTest(WebDriver driver) {
+        Session session = driver == null ? null : SESSIONS.get(driver);
+        if (session == null) {
+            return;
+        }
+        session.sample();
+        long heap = readJsHeap(driver, false);
+        synchronized (session) {
+            if (session.current == null) {
+                return;
+            }
+            session.current.jsHeapBytes = heap;
+            if (heap >= 0) {
+                session.heapSamples.add(heap);
+            }
+            RESULTS.add(session.current);
+            session.current = null;
+        }
+    }
+
+    /**
+     * Quit a session and stop monitoring it
+     * Before quit the JS heap is read once after a forced garbage collection for the leak
+     * check; after quit any driver or browser process that outlived it is killed
+     * @param driver - session to quit, monitored or not
+     */
+    public static void release(WebDriver driver) {
+        if (driver == null) {
+            return;
+        }
+        Session session = SESSIONS.remove(driver);
+        if (session != null) {
+            long retainedHeap = readJsHeap(driver, true);
+            checkLeaks(session, retainedHeap);
+        }
+
+        try {
+            driver.quit();
+        } finally {
+            if (session != null) {
+                List<ProcessHandle> survivors = waitForExit(session.processTree());
+                if (!survivors.isEmpty()) {
+                    warn("Orphaned " + session.browser + " processes after quit: " + describe(survivors));
+                    kill(survivors);
+                }
+            }
+        }
+    }
+
+    /**
+     * Clean up at suite end: release sessions whose teardown never ran and kill any
+     * driver or browser process the JVM started that is still running
+     * @return number of processes killed by the final sweep
+     */
+    public static int shutdown() {
+        if (!ENABLED) {
+            return 0;
+        }
+        SAMPLER.shutdownNow();
+        for (Session session : new ArrayList<Session>(SESSIONS.values())) {
+            warn("Session " + session.browser + " was never torn down");
+            try {
+                release(session.driver);
+            } catch (Exception e) {
+                System.out.println("Quit of leaked session failed: " + e.getMessage());
+            }
+        }
+
+        List<ProcessHandle> orphans = new ArrayList<ProcessHandle>();
+        ProcessHandle.current().children()
+            .filter(BrowserResourceMonitor::isSessionProcess)
+            .forEach(orphans::add);
+        if (!orphans.isEmpty()) {
+            warn("Orphaned driver/browser processes at suite end: " + describe(orphans));
+            kill(orphans);
+        }
+        return orphans.size();
+    }
+
+    /**
+     * @return per-test usage collected so far, in completion order
+     */
+    public static List<TestUsage> results() {
+        synchronized (RESULTS) {
+            return new ArrayList<TestUsage>(RESULTS);
+        }
+    }
+
+    /**
+     * @return leak and orphan warnings raised so far
+     */
+    public static List<String> warnings() {
+        synchronized (WARNINGS) {
+            return new ArrayList<String>(WARNINGS);
+        }
+    }
+
+    /**
+     * Print the peak usage table and write it to target/resource-usage/{suite}.csv
+     * @param suite - suite name used as the report file name
+     */
+    public static void report(String suite) {
+        List<TestUsage> results = results();
+        if (results.isEmpty()) {
+            return;
+        }
+
+        String measure = rssFallback ? "rss" : "pss";
+        System.out.println("Browser resource usage (peak per test"
+            + (rssFallback ? ", memory is summed RSS and overstates shared pages" : "") + "):");
+        long maxSessionMemoryKb = 0;
+        for (TestUsage usage : results) {
+            maxSessionMemoryKb = Math.max(maxSessionMemoryKb, usage.peakMemoryKb);
+            System.out.println(String.format(Locale.ROOT, "  %-10s %-60s %s %6.0f MB  cpu %5.0f%%  heap %s",
+                usage.browser, usage.testName, measure, usage.peakMemoryKb / (double) KB, usage.peakCpuPercent,
+                usage.jsHeapBytes < 0 ? "n/a" : String.format(Locale.ROOT, "%.1f MB", usage.jsHeapBytes / (double) (KB * KB))));
+        }
+        synchronized (PEAK_LOCK) {
+            System.out.println(String.format(Locale.ROOT,
+                "Peak total browser %s %.0f MB%s across %d concurrent sessions, peak single session %.0f MB",
+                measure.toUpperCase(Locale.ROOT), peakTotalMemoryKb / (double) KB, rssFallback ? " (upper bound)" : "",
+                peakConcurrentSessions, maxSessionMemoryKb / (double) KB));
+        }
+        for (String warning : warnings()) {
+            System.out.println("⚠️ " + warning);
+        }
+
+        Path file = REPORT_DIR.resolve(suite.replaceAll("[^A-Za-z0-9._-]", "_") + ".csv");
+        try {
+            Files.createDirectories(REPORT_DIR);
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                writer.write("browser,test,peak" + (rssFallback ? "Rss" : "Pss") + "Kb,peakCpuPercent,jsHeapBytes\n");
+                for (TestUsage usage : results) {
+                    writer.write(String.format(Locale.ROOT, "%s,%s,%d,%.1f,%d\n",
+                        usage.browser, usage.testName, usage.peakMemoryKb, usage.peakCpuPercent, usage.jsHeapBytes));
+                }
+            }
+            System.out.println("Resource usage written to " + file);
+        } catch (IOException e) {
+            System.out.println("Resource usage report not written: " + e.getMessage());
+        }
+    }
+
+    private static void sampleAll() {
+        try {
+            long totalMemoryKb = 0;
+            for (Session session : SESSIONS.values()) {
+                session.sample();
+                totalMemoryKb += session.lastMemoryKb;
+            }
+            synchronized (PEAK_LOCK) {
+                peakTotalMemoryKb = Math.max(peakTotalMemoryKb, totalMemoryKb);
+            }
+        } catch (RuntimeException e) {
+            // A failing sample must not cancel the schedule
+            System.out.println("Resource sample failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Compare the retained heap at the end of a session with its smallest per-test reading;
+     * those readings include uncollected garbage, so the estimated growth errs on the low side
+     * @param retainedHeap - heap after a forced collection, or -1 if not readable
+     */
+    private static void checkLeaks(Session session, long retainedHeap) {
+        synchronized (session) {
+            List<Long> heap = session.heapSamples;
+            if (retainedHeap >= 0 && heap.size() >= 2) {
+                long growth = retainedHeap - Collections.min(heap);
+                if (growth > HEAP_LEAK_MB * KB * KB) {
+                    warn(String.format(Locale.ROOT, "Possible JS heap leak in %s session: +%.1f MB over %d tests",
+                        session.browser, growth / (double) (KB * KB), heap.size()));
+                }
+            }
+            long memoryGrowth = session.lastMemoryKb - session.firstMemoryKb;
+            if (session.firstMemoryKb >= 0 && memoryGrowth > MEMORY_LEAK_MB * KB) {
+                warn(String.format(Locale.ROOT, "Possible memory leak in %s session: process memory +%.0f MB",
+                    session.browser, memoryGrowth / (double) KB));
+            }
+        }
+    }
+
+    /**
+     * Locate the root browser process of a local session
+     * Firefox reports its PID; Chromium browsers are matched by their per-session profile directory
+     */
+    @SuppressWarnings("unchecked")
+    private static ProcessHandle findBrowserProcess(Capabilities capabilities) {
+        Object firefoxPid = capabilities.getCapability("moz:processID");
+        if (firefoxPid instanceof Number) {
+            return ProcessHandle.of(((Number) firefoxPid).longValue()).orElse(null);
+        }
+
+        String userDataDir = null;
+        for (String key : Arrays.asList("chrome", "msedge")) {
+            Object details = capabilities.getCapability(key);
+            if (details instanceof Map && ((Map<String, Object>) details).get("userDataDir") != null) {
+                userDataDir = String.valueOf(((Map<String, Object>) details).get("userDataDir"));
+            }
+        }
+        if (userDataDir == null) {
+            return null;
+        }
+
+        String profileArgument = "--user-data-dir=" + userDataDir;
+        return ProcessHandle.current().descendants()
+            .filter(process -> process.info().commandLine().map(line -> line.contains(profileArgument)).orElse(false))
+            .filter(process -> !process.parent().flatMap(parent -> parent.info().commandLine())
+                .map(line -> line.contains(profileArgument)).orElse(false))
+            .findFirst()
+            .orElse(null);
+    }
+
+    private static boolean isSessionProcess(ProcessHandle process) {
+        Optional<String> command = process.info().command();
+        if (!command.isPresent()) {
+            return false;
+        }
+        String name = Paths.get(command.get()).getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".exe")) {
+            name = name.substring(0, name.length() - 4);
+        }
+        for (String executable : SESSION_EXECUTABLES) {
+            if (name.equals(executable) || name.startsWith(executable + "-")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Used JS heap of the current page
+     * @param collectGarbage - force a collection first (Chromium only), so the reading reflects
+     * retained memory; intrusive and slow, so only done once per session
+     * @return bytes, or -1 if not exposed by the browser
+     */
+    private static long readJsHeap(WebDriver driver, boolean collectGarbage) {
+        try {
+            if (driver instanceof HasCdp) {
+                HasCdp cdp = (HasCdp) driver;
+                if (collectGarbage) {
+                    cdp.executeCdpCommand("HeapProfiler.collectGarbage", Collections.<String, Object>emptyMap());
+                }
+                Map<String, Object> usage = cdp.executeCdpCommand("Runtime.getHeapUsage", Collections.<String, Object>emptyMap());
+                return ((Number) usage.get("usedSize")).longValue();
+            }
+            Object used = ((JavascriptExecutor) driver).executeScript(
+                "return window.performance && performance.memory ? performance.memory.usedJSHeapSize : null;");
+            return used instanceof Number ? ((Number) used).longValue() : -1;
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Memory of one process from /proc on Linux
+     * PSS splits shared pages between the processes mapping them, so the sum over a Chrome
+     * process tree is its real footprint; RSS counts them in every process
+     * @return PSS in KB, RSS in KB if smaps_rollup is unavailable, or -1 without /proc
+     */
+    private static long memoryKb(long pid) {
+        long pss = procValueKb(Paths.get("/proc", String.valueOf(pid), "smaps_rollup"), "Pss:");
+        if (pss >= 0) {
+            return pss;
+        }
+        long rss = procValueKb(Paths.get("/proc", String.valueOf(pid), "status"), "VmRSS:");
+        if (rss >= 0) {
+            rssFallback = true;
+        }
+        return rss;
+    }
+
+    /**
+     * @return the KB value of the first line starting with key, or -1 if unreadable
+     */
+    private static long procValueKb(Path file, String key) {
+        try {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                if (line.startsWith(key)) {
+                    return Long.parseLong(line.replaceAll("[^0-9]", ""));
+                }
+            }
+        } catch (IOException | NumberFormatException ignore) {
+            // Process exited, platform without /proc or kernel without smaps_rollup
+        }
+        return -1;
+    }
+
+    /**
+     * Wait briefly for processes to exit on their own
+     * @return processes still alive after the timeout
+     */
+    private static List<ProcessHandle> waitForExit(List<ProcessHandle> processes) {
+        long deadline = System.nanoTime() + EXIT_TIMEOUT.toNanos();
+        List<ProcessHandle> alive = new ArrayList<ProcessHandle>();
+        for (ProcessHandle process : processes) {
+            long remaining = deadline - System.nanoTime();
+            try {
+                process.onExit().get(Math.max(0, remaining), TimeUnit.NANOSECONDS);
+            } catch (Exception e) {
+                if (process.isAlive()) {
+                    alive.add(process);
+                }
+            }
+        }
+        return alive;
+    }
+
+    /**
+     * Terminate processes together with their children, forcibly if they ignore the request
+     */
+    private static void kill(List<ProcessHandle> processes) {
+        List<ProcessHandle> all = new ArrayList<ProcessHandle>();
+        for (ProcessHandle process : processes) {
+            process.descendants().forEach(all::add);
+            all.add(process);
+        }
+        for (ProcessHandle process : all) {
+            process.destroy();
+        }
+        for (ProcessHandle process : waitForExit(all)) {
+            process.destroyForcibly();
+        }
+        System.out.println("Killed " + all.size() + " leftover driver/browser processes");
+    }
+
+    private static String describe(List<ProcessHandle> processes) {
+        List<String> names = new ArrayList<String>();
+        for (ProcessHandle process : processes) {
+            names.add(process.info().command().map(command -> Paths.get(command).getFileName().toString()).orElse("?")
+                + "(" + process.pid() + ")");
+        }
+        return String.join(", ", names);
+    }
+
+    private static void warn(String warning) {
+        WARNINGS.add(warning);
+        System.out.println("⚠️ " + warning);
+    }
+}
@@ -0,0 +1,357 @@
+package utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Change-impact analysis for the page-object suite
+ * Persists the per-test footprint recorded by ImpactRecorder and diffs the working tree
+ * against the commit of the last recorded run with plain git to decide which tests to run
+ */
+public class ImpactAnalyzer {
+
+    public static final Path DEFAULT_MAP_FILE = Paths.get(".impact", "impact-map.properties");
+
+    private static final String PAGES_DIR = "src/main/java/pages/";
+    private static final String TEST_SOURCE_ROOT = "src/test/java/";
+    private static final String TESTS_DIR = TEST_SOURCE_ROOT + "tests/";
+    private static final Pattern HUNK_HEADER = Pattern.compile("^@@ -(\\d+)(?:,(\\d+))? \\+\\d+(?:,\\d+)? @@");
+
+    private final Path mapFile;
+    private String recordedCommit;
+    private final Map<String, Set<String>> footprints = new TreeMap<String, Set<String>>();
+    // Tests not yet verified against the recorded commit: failed, skipped, or affected but not run
+    private final Set<String> pendingTests = new TreeSet<String>();
+
+    // Diff results, computed once per run and shared by every TestNG test in the suite
+    private Set<String> changedMembers;
+    private Set<String> changedTests;
+    private boolean changesRequireFullRun;
+    private boolean fullRunRequired;
+
+    public ImpactAnalyzer(Path mapFile) {
+        this.mapFile = mapFile;
+    }
+
+    /**
+     * Load the footprint map written by the previous run
+     * @return true if a usable map was found, false otherwise
+     */
+    public boolean load() {
+        if (!Files.isRegularFile(mapFile)) {
+            return false;
+        }
+        Properties props = new Properties();
+        try (Reader reader = Files.newBufferedReader(mapFile, StandardCharsets.UTF_8)) {
+            props.load(reader);
+        } catch (IOException e) {
+            System.out.println("Impact map could not be read: " + e.getMessage());
+            return false;
+        }
+
+        recordedCommit = props.getProperty("commit");
+        for (String key : props.stringPropertyNames()) {
+            if (key.startsWith("test.")) {
+                footprints.put(key.substring("test.".length()), split(props.getProperty(key)));
+            }
+        }
+        pendingTests.addAll(split(props.getProperty("pending", "")));
+        // Maps written before pending tests were tracked
+        pendingTests.addAll(split(props.getProperty("failed", "")));
+        return recordedCommit != null && !recordedCommit.isEmpty();
+    }
+
+    /**
+     * Merge the footprints of this run into the map and write it to disk
+     * Tests that did not run keep their previous footprint. The map moves to HEAD, so every
+     * test that was scheduled or affected by the diff but did not pass stays pending and is
+     * run again next time, even though the change no longer shows in the new diff
+     * @param current - footprints recorded in this run
+     * @param scheduled - qualified names of tests selected to run in this run
+     * @param passed - qualified names of tests that passed in this run
+     */
+    public synchronized void save(Map<String, Set<String>> current, Collection<String> scheduled, Collection<String> passed) {
+        String head;
+        try {
+            head = git("rev-parse", "HEAD").trim();
+        } catch (IOException e) {
+            System.out.println("Impact map not saved, git is unavailable: " + e.getMessage());
+            return;
+        }
+
+        Set<String> pending = new TreeSet<String>(pendingTests);
+        pending.addAll(scheduled);
+        if (recordedCommit != null && !recordedCommit.isEmpty()) {
+            try {
+                // Covers known tests TestNG never scheduled, e.g. filtered out by -Dtest or groups
+                Set<String> known = new TreeSet<String>(footprints.keySet());
+                known.remove(ImpactRecorder.CONFIG_KEY);
+                pending.addAll(affectedTests(known));
+            } catch (IOException e) {
+                System.out.println("Impact of unscheduled tests unknown, keeping commit "
+                    + shortCommit() + ": " + e.getMessage());
+                head = recordedCommit;
+            }
+        }
+        pending.removeAll(passed);
+        pending.remove(ImpactRecorder.CONFIG_KEY);
+        pendingTests.clear();
+        pendingTests.addAll(pending);
+        footprints.putAll(current);
+
+        try {
+            Files.createDirectories(mapFile.toAbsolutePath().getParent());
+            try (Writer writer = Files.newBufferedWriter(mapFile, StandardCharsets.UTF_8)) {
+                writer.write("# Page-object footprint per test, written by ImpactAnalysisListener\n");
+                writer.write("commit=" + head + "\n");
+                writer.write("pending=" + String.join(",", pendingTests) + "\n");
+                for (Map.Entry<String, Set<String>> entry : footprints.entrySet()) {
+                    writer.write("test." + entry.getKey() + "=" + String.join(",", entry.getValue()) + "\n");
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("Impact map could not be written: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Decide which of the candidate tests are affected by changes since the recorded commit
+     * @param candidates - qualified test method names scheduled by TestNG
+     * @return subset of candidates to run; all candidates if impact cannot be determined
+     * @throws IOException if git cannot produce the diff
+     */
+    public synchronized Set<String> selectTests(Collection<String> candidates) throws IOException {
+        Set<String> selected = affectedTests(candidates);
+        System.out.println("Impact analysis since " + shortCommit() + ": changed members " + changedMembers
+            + (fullRunRequired ? " (full run required)" : "") + ", running " + selected.size()
+            + " of " + candidates.size() + " tests");
+        return selected;
+    }
+
+    /**
+     * Filter tests down to those affected by the diff, pending from earlier runs, or unknown
+     */
+    private Set<String> affectedTests(Collection<String> candidates) throws IOException {
+        if (changedMembers == null) {
+            Set<String> members = new HashSet<String>();
+            Set<String> tests = new HashSet<String>();
+            changesRequireFullRun = collectChanges(members, tests);
+            changedMembers = members;
+            changedTests = tests;
+        }
+        boolean runAll = changesRequireFullRun;
+
+        Set<String> knownMembers = new HashSet<String>();
+        for (Set<String> touched : footprints.values()) {
+            knownMembers.addAll(touched);
+        }
+        // Members no test has ever touched (shared fields, new helpers) could affect anything
+        for (String member : changedMembers) {
+            if (!knownMembers.contains(member)) {
+                runAll = true;
+            }
+        }
+        Set<String> configFootprint = footprints.get(ImpactRecorder.CONFIG_KEY);
+        if (configFootprint != null && !disjoint(configFootprint, changedMembers)) {
+            runAll = true;
+        }
+        fullRunRequired = runAll;
+
+        Set<String> selected = new LinkedHashSet<String>();
+        for (String test : candidates) {
+            Set<String> footprint = footprints.get(test);
+            if (runAll || footprint == null || pendingTests.contains(test)
+                    || changedTests.contains(test) || !disjoint(footprint, changedMembers)) {
+                selected.add(test);
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Walk the git diff and collect changed page-object members and test methods
+     * @return true if a change cannot be attributed and the whole suite must run
+     */
+    private boolean collectChanges(Set<String> changedMembers, Set<String> changedTests) throws IOException {
+        boolean runAll = false;
+        String nameOutput = git("diff", "--name-only", recordedCommit, "--", "src", "pom.xml");
+        List<String> untracked = lines(git("ls-files", "--others", "--exclude-standard", "--", "src"));
+
+        for (String file : lines(nameOutput)) {
+            boolean isPage = file.startsWith(PAGES_DIR);
+            boolean isTest = file.startsWith(TESTS_DIR);
+            if (!isPage && !isTest) {
+                runAll = true;
+                continue;
+            }
+
+            String className = new File(file).getName().replace(".java", "");
+            Set<String> members;
+            try {
+                members = changedMembers(file, className);
+            } catch (IOException e) {
+                // File is new since the recorded commit, so its impact is unknown
+                members = new HashSet<String>(Arrays.asList(SourceIndex.CLASS_LEVEL));
+            }
+
+            if (members.contains(SourceIndex.CLASS_LEVEL)) {
+                runAll = true;
+            } else if (isPage) {
+                changedMembers.addAll(members);
+            } else {
+                String qualifiedClass = file.substring(TEST_SOURCE_ROOT.length())
+                    .replace(".java", "").replace('/', '.');
+                for (String member : members) {
+                    String test = qualifiedClass + "." + member;
+                    if (footprints.containsKey(test)) {
+                        changedTests.add(test);
+                    } else {
+                        // Setup, fields or helpers in a test class affect all of its tests
+                        runAll = true;
+                    }
+                }
+            }
+        }
+        // New sources anywhere under src are as unattributable as tracked changes outside pages/tests
+        if (!untracked.isEmpty()) {
+            runAll = true;
+        }
+        return runAll;
+    }
+
+    /**
+     * Map the changed lines of one file back to the members declared in its recorded version
+     */
+    private Set<String> changedMembers(String file, String className) throws IOException {
+        SourceIndex index = new SourceIndex(className, git("show", recordedCommit + ":" + file));
+        return membersInDiff(index, git("diff", "--unified=0", recordedCommit, "--", file));
+    }
+
+    /**
+     * Map the hunks of a zero-context diff onto the members of the old version of the file
+     * @param index - index of the file at the recorded commit
+     * @param diff - output of git diff --unified=0 for that file
+     * @return changed member names, possibly including SourceIndex.CLASS_LEVEL
+     */
+    static Set<String> membersInDiff(SourceIndex index, String diff) {
+        Set<String> members = new HashSet<String>();
+
+        for (String line : lines(diff)) {
+            Matcher hunk = HUNK_HEADER.matcher(line);
+            if (!hunk.find()) {
+                continue;
+            }
+            int start = Integer.parseInt(hunk.group(1));
+            int count = hunk.group(2) == null ? 1 : Integer.parseInt(hunk.group(2));
+
+            if (count == 0) {
+                // Pure insertion after 'start': attribute it to the surrounding member if any
+                String owner = index.ownerOf(start);
+                if (owner == null) {
+                    owner = index.ownerOf(start + 1);
+                }
+                if (owner != null) {
+                    members.add(owner);
+                }
+            }
+            for (int lineNo = start; lineNo < start + count; lineNo++) {
+                String owner = index.ownerOf(lineNo);
+                if (owner != null) {
+                    members.add(owner);
+                }
+            }
+        }
+        return members;
+    }
+
+    private String shortCommit() {
+        return recordedCommit.length() > 10 ? recordedCommit.substring(0, 10) : recordedCommit;
+    }
+
+    /**
+     * Run a git command in the working directory and return its standard output
+     */
+    private static String git(String... args) throws IOException {
+        String[] command = new String[args.length + 1];
+        command[0] = "git";
+        System.arraycopy(args, 0, command, 1, args.length);
+
+        Process process = new ProcessBuilder(command)
+            .redirectError(ProcessBuilder.Redirect.INHERIT)
+            .start();
+        process.getOutputStream().close();
+        String output = readFully(process.getInputStream());
+        try {
+            int exitCode = process.waitFor();
+            if (exitCode != 0) {
+                throw new IOException("git " + String.join(" ", args) + " exited with " + exitCode);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while running git", e);
+        }
+        return output;
+    }
+
+    private static String readFully(InputStream in) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        byte[] chunk = new byte[8192];
+        int read;
+        while ((read = in.read(chunk)) != -1) {
+            buffer.write(chunk, 0, read);
+        }
+        return new String(buffer.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static List<String> lines(String text) {
+        List<String> result = new ArrayList<String>();
+        for (String line : text.split("\r?\n")) {
+            if (!line.trim().isEmpty()) {
+                result.add(line.trim());
+            }
+        }
+        return result;
+    }
+
+    private static Set<String> split(String value) {
+        Set<String> result = new TreeSet<String>();
+        if (value != null) {
+            for (String part : value.split(",")) {
+                if (!part.trim().isEmpty()) {
+                    result.add(part.trim());
+                }
+            }
+        }
+        return result;
+    }
+
+    private static boolean disjoint(Set<String> a, Set<String> b) {
+        for (String item : a) {
+            if (b.contains(item)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
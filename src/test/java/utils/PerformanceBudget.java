@@ -0,0 +1,59 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Configurable timing budgets in milliseconds
+ * Defaults can be overridden per metric with -Dperf.budget.{metric}=millis,
+ * e.g. mvn test -Dperf.budget.ttfb=600
+ */
+public class PerformanceBudget {
+
+    private final Map<String, Double> limits = new LinkedHashMap<String, Double>();
+
+    /**
+     * Set or replace the budget for a metric
+     * @param metric - metric name
+     * @param maxMillis - maximum allowed value in milliseconds
+     * @return this budget for chaining
+     */
+    public PerformanceBudget limit(String metric, double maxMillis) {
+        limits.put(metric, maxMillis);
+        return this;
+    }
+
+    /**
+     * Apply -Dperf.budget.{metric} overrides to every metric already in the budget
+     * @return this budget for chaining
+     */
+    public PerformanceBudget withSystemOverrides() {
+        for (Map.Entry<String, Double> entry : limits.entrySet()) {
+            String override = System.getProperty("perf.budget." + entry.getKey());
+            if (override != null && !override.trim().isEmpty()) {
+                entry.setValue(Double.parseDouble(override.trim()));
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Check measured metrics against the budget
+     * Metrics that were not measured (negative values) or have no budget are ignored
+     * @param metrics - measured values in milliseconds
+     * @return human-readable violations, empty if all metrics are within budget
+     */
+    public List<String> violations(Map<String, Double> metrics) {
+        List<String> violations = new ArrayList<String>();
+        for (Map.Entry<String, Double> entry : metrics.entrySet()) {
+            Double limit = limits.get(entry.getKey());
+            double value = entry.getValue();
+            if (limit != null && value >= 0 && value > limit) {
+                violations.add(String.format("%s took %.0f ms (budget %.0f ms)", entry.getKey(), value, limit));
+            }
+        }
+        return violations;
+    }
+}
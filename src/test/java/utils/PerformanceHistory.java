@@ -0,0 +1,118 @@
+package utils;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Local time-series of performance measurements
+ * Every run appends one CSV row per metric to perf-history/{suite}.csv and prints each value
+ * against the median of the previous runs, so slow drifts show up as trends
+ */
+public class PerformanceHistory {
+
+    public static final Path HISTORY_DIR = Paths.get("perf-history");
+    private static final String HEADER = "timestamp,browser,metric,millis";
+    private static final int TREND_WINDOW = 10;
+
+    private final Path file;
+
+    /**
+     * @param suite - time-series name, used as the CSV file name
+     */
+    public PerformanceHistory(String suite) {
+        this.file = HISTORY_DIR.resolve(suite + ".csv");
+    }
+
+    /**
+     * Print the trend for each metric and append the measurements to the history
+     * @param browser - browser the metrics were measured in
+     * @param metrics - measured values in milliseconds; negative values are skipped
+     */
+    public void record(String browser, Map<String, Double> metrics) {
+        synchronized (PerformanceHistory.class) {
+            try {
+                for (Map.Entry<String, Double> entry : metrics.entrySet()) {
+                    if (entry.getValue() >= 0) {
+                        printTrend(browser, entry.getKey(), entry.getValue());
+                    }
+                }
+                append(browser, metrics);
+            } catch (IOException e) {
+                System.out.println("Performance history not updated: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Read previous values of one metric, oldest first
+     * @param browser - browser name
+     * @param metric - metric name
+     * @return recorded values in milliseconds
+     * @throws IOException if the history file cannot be read
+     */
+    public List<Double> values(String browser, String metric) throws IOException {
+        List<Double> values = new ArrayList<Double>();
+        if (!Files.exists(file)) {
+            return values;
+        }
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            String[] columns = line.split(",");
+            if (columns.length == 4 && columns[1].equals(browser) && columns[2].equals(metric)) {
+                try {
+                    values.add(Double.parseDouble(columns[3]));
+                } catch (NumberFormatException ignore) {
+                    // Header or damaged row
+                }
+            }
+        }
+        return values;
+    }
+
+    private void printTrend(String browser, String metric, double value) throws IOException {
+        List<Double> previous = values(browser, metric);
+        if (previous.isEmpty()) {
+            System.out.println(String.format("%s: %.0f ms (first recorded run)", metric, value));
+            return;
+        }
+        List<Double> window = new ArrayList<Double>(
+            previous.subList(Math.max(0, previous.size() - TREND_WINDOW), previous.size()));
+        Collections.sort(window);
+        double median = window.size() % 2 == 1
+            ? window.get(window.size() / 2)
+            : (window.get(window.size() / 2 - 1) + window.get(window.size() / 2)) / 2;
+        double change = median > 0 ? (value - median) * 100 / median : 0;
+        System.out.println(String.format("%s: %.0f ms (median of last %d runs: %.0f ms, %+.0f%%)",
+            metric, value, window.size(), median, change));
+    }
+
+    private void append(String browser, Map<String, Double> metrics) throws IOException {
+        Files.createDirectories(HISTORY_DIR);
+        boolean newFile = !Files.exists(file);
+        String timestamp = Instant.now().toString();
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            if (newFile) {
+                writer.write(HEADER);
+                writer.newLine();
+            }
+            for (Map.Entry<String, Double> entry : metrics.entrySet()) {
+                if (entry.getValue() >= 0) {
+                    writer.write(String.format(Locale.ROOT, "%s,%s,%s,%.1f",
+                        timestamp, browser, entry.getKey(), entry.getValue()));
+                    writer.newLine();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package utils;
+
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.remote.HttpCommandExecutor;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import org.openqa.selenium.remote.http.ClientConfig;
+import org.openqa.selenium.remote.http.Contents;
+import org.openqa.selenium.remote.http.HttpClient;
+import org.openqa.selenium.remote.http.HttpMethod;
+import org.openqa.selenium.remote.http.HttpRequest;
+import org.openqa.selenium.remote.http.HttpResponse;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * RemoteWebDriver backend for Selenium Grid or standalone servers
+ * Enabled with -Dgrid.url=http://localhost:4444 (comma-separate several servers to scale
+ * past one host). The first sessions of a browser are created as one batch, each placed on the
+ * server with the most free slots for the browser, and every server keeps one long-lived
+ * status client. Batched sessions are checked before they are handed out, because one that
+ * waited past the grid's session timeout is already gone, and the unused ones are quit at
+ * suite end.
+ *
+ * -Dgrid.commandTimeout=120     seconds to wait for a WebDriver command response
+ * -Dgrid.connectTimeout=10      seconds to wait for a TCP connection
+ * -Dgrid.keepAlive=300          seconds idle connections stay in the JDK client pool
+ * -Dgrid.batchSize=N            sessions in the first batch (default: sessions the suite runs at once)
+ *
+ * All grid traffic goes through Selenium's JDK HTTP client, as Selenium otherwise defaults to
+ * its Netty client, which ignores the JDK keep-alive setting
+ */
+public final class RemoteDriverFactory {
+
+    private static final Duration COMMAND_TIMEOUT = Duration.ofSeconds(Long.getLong("grid.commandTimeout", 120));
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(Long.getLong("grid.connectTimeout", 10));
+    private static final Duration STATUS_TIMEOUT = Duration.ofSeconds(5);
+    private static final String JDK_HTTP_CLIENT = "jdk-http-client";
+    private static final HttpClient.Factory HTTP_CLIENTS = httpClientFactory();
+
+    private static final List<Node> NODES = new ArrayList<Node>();
+    private static final Map<String, Queue<Future<RemoteWebDriver>>> WARM_SESSIONS =
+        new ConcurrentHashMap<String, Queue<Future<RemoteWebDriver>>>();
+    // Browsers whose batch was already started; later requests start one session each
+    private static final Set<String> BATCHED = ConcurrentHashMap.newKeySet();
+    private static final ExecutorService SESSION_CREATOR = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "grid-session-creator");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        String urls = System.getProperty("grid.url", "");
+        if (!urls.trim().isEmpty()) {
+            // Must be set before the first JDK HttpClient is built to affect its connection pool
+            if (System.getProperty("jdk.httpclient.keepalive.timeout") == null) {
+                System.setProperty("jdk.httpclient.keepalive.timeout", System.getProperty("grid.keepAlive", "300"));
+            }
+            for (String url : urls.split(",")) {
+                if (!url.trim().isEmpty()) {
+                    NODES.add(new Node(url.trim()));
+                }
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread(RemoteDriverFactory::shutdown, "grid-session-cleanup"));
+        }
+    }
+
+    /**
+     * A Grid hub or standalone server and the sessions currently being created on it
+     */
+    private static final class Node {
+        final URL url;
+        final HttpClient statusClient;
+        final AtomicInteger pendingSessions = new AtomicInteger();
+
+        Node(String address) {
+            try {
+                this.url = new URL(address);
+            } catch (MalformedURLException e) {
+                throw new RuntimeException("Invalid grid.url: " + address, e);
+            }
+            this.statusClient = HTTP_CLIENTS.createClient(
+                ClientConfig.defaultConfig().baseUrl(url).connectionTimeout(CONNECT_TIMEOUT).readTimeout(STATUS_TIMEOUT));
+        }
+
+        /**
+         * Free slots for a browser according to /status, minus sessions we are still creating here
+         * @return free slot count, or Integer.MIN_VALUE if the server did not answer
+         */
+        @SuppressWarnings("unchecked")
+        int freeSlots(String browserName) {
+            try {
+                HttpResponse response = statusClient.execute(new HttpRequest(HttpMethod.GET, "/status"));
+                Map<String, Object> body = new Json().toType(Contents.string(response), Json.MAP_TYPE);
+                Map<String, Object> value = (Map<String, Object>) body.get("value");
+                List<Map<String, Object>> nodes = value == null || value.get("nodes") == null
+                    ? Collections.<Map<String, Object>>emptyList()
+                    : (List<Map<String, Object>>) value.get("nodes");
+
+                int free = 0;
+                for (Map<String, Object> node : nodes) {
+                    if (!"UP".equals(node.get("availability"))) {
+                        continue;
+                    }
+                    List<Map<String, Object>> slots = (List<Map<String, Object>>) node.get("slots");
+                    for (Map<String, Object> slot : slots == null ? Collections.<Map<String, Object>>emptyList() : slots) {
+                        Map<String, Object> stereotype = (Map<String, Object>) slot.get("stereotype");
+                        boolean sameBrowser = stereotype != null
+                            && browserName.equalsIgnoreCase(String.valueOf(stereotype.get("browserName")));
+                        if (sameBrowser && slot.get("session") == null) {
+                            free++;
+                        }
+                    }
+                }
+                return free - pendingSessions.get();
+            } catch (RuntimeException e) {
+                System.out.println("Grid status unavailable for " + url + ": " + e.getMessage());
+                return Integer.MIN_VALUE;
+            }
+        }
+    }
+
+    private RemoteDriverFactory() {
+    }
+
+    /**
+     * @return true if a grid or standalone server was configured with -Dgrid.url
+     */
+    public static boolean isEnabled() {
+        return !NODES.isEmpty();
+    }
+
+    /**
+     * Get a remote session for the given capabilities
+     * The first request for a browser starts a batch of sessions in parallel; later requests
+     * take the still-alive sessions from that batch, then start one session each
+     * @param capabilities - browser options, e.g. ChromeOptions
+     * @param concurrency - sessions of this browser the suite runs at once, used as batch size
+     * @return RemoteWebDriver connected to the least-loaded server
+     */
+    public static WebDriver create(Capabilities capabilities, int concurrency) {
+        if (!isEnabled()) {
+            throw new RuntimeException("Remote driver requested but -Dgrid.url is not set");
+        }
+
+        String key = capabilities.getBrowserName() + "@" + capabilities.getBrowserVersion();
+        Queue<Future<RemoteWebDriver>> warm = WARM_SESSIONS.computeIfAbsent(key,
+            k -> new ConcurrentLinkedQueue<Future<RemoteWebDriver>>());
+
+        while (true) {
+            Future<RemoteWebDriver> session;
+            synchronized (warm) {
+                session = warm.poll();
+                if (session == null && BATCHED.add(key)) {
+                    int batchSize = Integer.getInteger("grid.batchSize", concurrency);
+                    for (int i = 0; i < Math.max(1, batchSize); i++) {
+                        warm.add(SESSION_CREATOR.submit(() -> startSession(capabilities)));
+                    }
+                    session = warm.poll();
+                }
+            }
+            if (session == null) {
+                return startSession(capabilities);
+            }
+
+            RemoteWebDriver driver = await(session);
+            if (isAlive(driver)) {
+                return driver;
+            }
+            System.out.println("⚠️ Remote " + key + " session " + driver.getSessionId()
+                + " expired while waiting in the batch, taking the next one");
+            quitQuietly(driver);
+        }
+    }
+
+    private static RemoteWebDriver await(Future<RemoteWebDriver> session) {
+        try {
+            return session.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while creating remote session", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Failed to create remote session: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Cheap round trip to tell whether the grid still knows the session
+     */
+    private static boolean isAlive(RemoteWebDriver driver) {
+        try {
+            driver.getWindowHandle();
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static void quitQuietly(RemoteWebDriver driver) {
+        try {
+            driver.quit();
+        } catch (Exception e) {
+            System.out.println("Unused remote session cleanup failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Start one session on the server with the most free slots for the browser
+     */
+    private static RemoteWebDriver startSession(Capabilities capabilities) {
+        Node node = leastLoaded(capabilities.getBrowserName());
+        try {
+            ClientConfig config = ClientConfig.defaultConfig()
+                .baseUrl(node.url)
+                .connectionTimeout(CONNECT_TIMEOUT)
+                .readTimeout(COMMAND_TIMEOUT);
+            HttpCommandExecutor executor = new HttpCommandExecutor(
+                Collections.emptyMap(), config, HTTP_CLIENTS);
+            RemoteWebDriver driver = new RemoteWebDriver(executor, capabilities);
+            System.out.println("Remote " + capabilities.getBrowserName() + " session "
+                + driver.getSessionId() + " started on " + node.url);
+            return driver;
+        } finally {
+            node.pendingSessions.decrementAndGet();
+        }
+    }
+
+    private static HttpClient.Factory httpClientFactory() {
+        try {
+            return HttpClient.Factory.create(JDK_HTTP_CLIENT);
+        } catch (IllegalArgumentException e) {
+            System.out.println("JDK HTTP client not on the classpath, grid.keepAlive has no effect: " + e.getMessage());
+            return HttpClient.Factory.createDefault();
+        }
+    }
+
+    private static Node leastLoaded(String browserName) {
+        synchronized (NODES) {
+            Node best = NODES.get(0);
+            int bestFree = Integer.MIN_VALUE;
+            for (Node node : NODES) {
+                int free = node.freeSlots(browserName);
+                if (free > bestFree) {
+                    best = node;
+                    bestFree = free;
+                }
+            }
+            best.pendingSessions.incrementAndGet();
+            return best;
+        }
+    }
+
+    /**
+     * Quit sessions that were started in a batch but never handed out, so they do not hold
+     * grid slots; the next suite starts its own batch
+     * @return number of sessions quit
+     */
+    public static int releaseUnused() {
+        int released = 0;
+        for (Map.Entry<String, Queue<Future<RemoteWebDriver>>> entry : WARM_SESSIONS.entrySet()) {
+            Queue<Future<RemoteWebDriver>> warm = entry.getValue();
+            synchronized (warm) {
+                Future<RemoteWebDriver> session;
+                while ((session = warm.poll()) != null) {
+                    try {
+                        quitQuietly(session.get());
+                        released++;
+                    } catch (Exception e) {
+                        System.out.println("Unused remote session cleanup failed: " + e.getMessage());
+                    }
+                }
+                BATCHED.remove(entry.getKey());
+            }
+        }
+        if (released > 0) {
+            System.out.println("Released " + released + " unused remote sessions");
+        }
+        return released;
+    }
+
+    /**
+     * Last-resort cleanup at JVM exit: quit unused sessions and close status clients
+     */
+    public static void shutdown() {
+        releaseUnused();
+        for (Node node : NODES) {
+            node.statusClient.close();
+        }
+    }
+}
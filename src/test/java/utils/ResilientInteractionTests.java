@@ -0,0 +1,135 @@
+package utils;
+
+import org.openqa.selenium.ElementClickInterceptedException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebElement;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Offline tests for the retry loop, driven by locators and elements that fail on purpose
+ * Checks that transient failures are retried and counted and that the budget bounds every call
+ */
+public class ResilientInteractionTests {
+
+    private static final long BUDGET_MS = 300;
+
+    @Test(groups = "unit", description = "A clickable element is used on the first attempt without retries")
+    public void testFirstAttemptSucceeds() {
+        ResilientInteraction interaction = new ResilientInteraction(BUDGET_MS);
+        AtomicInteger clicks = new AtomicInteger();
+
+        interaction.perform("click", () -> element(true), element -> clicks.incrementAndGet());
+
+        Assert.assertEquals(clicks.get(), 1);
+        Assert.assertEquals(interaction.getRetryCount(), 0);
+    }
+
+    @Test(groups = "unit", description = "Stale elements are re-resolved and counted per instance and JVM-wide")
+    public void testStaleElementIsRetried() {
+        ResilientInteraction interaction = new ResilientInteraction(BUDGET_MS);
+        long staleBefore = totalRetries("StaleElementReferenceException");
+        AtomicInteger clicks = new AtomicInteger();
+
+        interaction.perform("click", failing(2, () -> new StaleElementReferenceException("re-rendered")),
+            element -> clicks.incrementAndGet());
+
+        Assert.assertEquals(clicks.get(), 1);
+        Assert.assertEquals(interaction.getRetryCount(), 2);
+        Assert.assertEquals(totalRetries("StaleElementReferenceException") - staleBefore, 2);
+    }
+
+    @Test(groups = "unit", description = "Intercepted clicks are retried and counted under their own type")
+    public void testInterceptedClickIsRetried() {
+        ResilientInteraction interaction = new ResilientInteraction(BUDGET_MS);
+        long interceptedBefore = totalRetries("ElementClickInterceptedException");
+        AtomicInteger attempts = new AtomicInteger();
+
+        interaction.perform("click", () -> element(true), element -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new ElementClickInterceptedException("overlay");
+            }
+        });
+
+        Assert.assertEquals(attempts.get(), 2);
+        Assert.assertEquals(interaction.getRetryCount(), 1);
+        Assert.assertEquals(totalRetries("ElementClickInterceptedException") - interceptedBefore, 1);
+    }
+
+    @Test(groups = "unit", description = "A failure that never clears gives up once the budget is spent")
+    public void testGivesUpAtBudget() {
+        ResilientInteraction interaction = new ResilientInteraction(BUDGET_MS);
+        long start = System.currentTimeMillis();
+
+        try {
+            interaction.perform("click", failing(Integer.MAX_VALUE, () -> new StaleElementReferenceException("gone")),
+                element -> Assert.fail("Element must never be resolved"));
+            Assert.fail("Interaction must give up");
+        } catch (RuntimeException e) {
+            Assert.assertTrue(e.getMessage().startsWith("click failed after "), e.getMessage());
+            Assert.assertTrue(e.getCause() instanceof StaleElementReferenceException);
+        }
+        long elapsed = System.currentTimeMillis() - start;
+
+        Assert.assertTrue(elapsed <= BUDGET_MS + 100, "Took " + elapsed + " ms");
+        Assert.assertTrue(interaction.getRetryCount() >= 2, "Retries: " + interaction.getRetryCount());
+    }
+
+    @Test(groups = "unit", description = "Waiting for an element that never becomes clickable is capped by the budget")
+    public void testClickabilityWaitIsBounded() {
+        ResilientInteraction interaction = new ResilientInteraction(BUDGET_MS);
+        long start = System.currentTimeMillis();
+
+        try {
+            interaction.perform("click", () -> element(false), element -> Assert.fail("Disabled element clicked"));
+            Assert.fail("Interaction must time out");
+        } catch (RuntimeException e) {
+            Assert.assertTrue(e.getMessage().contains("not clickable within " + BUDGET_MS + " ms"), e.getMessage());
+        }
+        long elapsed = System.currentTimeMillis() - start;
+
+        Assert.assertTrue(elapsed >= BUDGET_MS - 50 && elapsed <= BUDGET_MS + 200, "Took " + elapsed + " ms");
+        Assert.assertEquals(interaction.getRetryCount(), 0);
+    }
+
+    /**
+     * Locator that throws the given failure the first times calls, then resolves a clickable element
+     */
+    private static Supplier<WebElement> failing(int times, Supplier<RuntimeException> failure) {
+        AtomicInteger calls = new AtomicInteger();
+        return () -> {
+            if (calls.getAndIncrement() < times) {
+                throw failure.get();
+            }
+            return element(true);
+        };
+    }
+
+    /**
+     * Element stub that is displayed and reports the given enabled state
+     */
+    private static WebElement element(boolean enabled) {
+        return (WebElement) Proxy.newProxyInstance(WebElement.class.getClassLoader(), new Class<?>[] {WebElement.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "isDisplayed":
+                        return true;
+                    case "isEnabled":
+                        return enabled;
+                    case "toString":
+                        return "stub element";
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                }
+            });
+    }
+
+    private static long totalRetries(String type) {
+        Long count = ResilientInteraction.getTotalRetryCounts().get(type);
+        return count == null ? 0 : count;
+    }
+}
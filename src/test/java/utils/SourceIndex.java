@@ -0,0 +1,144 @@
+package utils;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Line-range index of the members (methods, fields, locators) declared in a single Java class
+ * Used by impact analysis to map changed diff lines back to page-object members
+ */
+public class SourceIndex {
+
+    // Marker returned for lines that belong to no member (imports, class header, constructor)
+    public static final String CLASS_LEVEL = "*";
+
+    private static final Pattern METHOD_NAME = Pattern.compile("(\\w+)\\s*\\(");
+    private static final Pattern FIELD_NAME = Pattern.compile("(\\w+)\\s*(\\[\\s*\\])?\\s*[=;]");
+
+    private final String className;
+    private final String[] owners;
+
+    /**
+     * Build an index from the full source text of a class
+     * @param className - simple class name, used to detect constructors
+     * @param source - Java source code
+     */
+    public SourceIndex(String className, String source) {
+        this.className = className;
+        String[] lines = source.split("\r?\n", -1);
+        this.owners = new String[lines.length + 1];
+        index(lines);
+    }
+
+    /**
+     * Get the member that owns a 1-based line number
+     * @param line - line number in the indexed source
+     * @return member name, CLASS_LEVEL for class-level code, or null for blank lines between members
+     */
+    public String ownerOf(int line) {
+        if (line < 1 || line >= owners.length) {
+            return null;
+        }
+        return owners[line];
+    }
+
+    private void index(String[] lines) {
+        int depth = 0;
+        boolean inBlockComment = false;
+        int memberStart = -1;
+        String memberName = null;
+
+        for (int i = 0; i < lines.length; i++) {
+            int lineNo = i + 1;
+            StringBuilder code = new StringBuilder();
+            int depthBefore = depth;
+
+            // Strip comments and string/char literals so braces inside them are ignored
+            String line = lines[i];
+            for (int c = 0; c < line.length(); c++) {
+                char ch = line.charAt(c);
+                if (inBlockComment) {
+                    if (ch == '*' && c + 1 < line.length() && line.charAt(c + 1) == '/') {
+                        inBlockComment = false;
+                        c++;
+                    }
+                } else if (ch == '/' && c + 1 < line.length() && line.charAt(c + 1) == '*') {
+                    inBlockComment = true;
+                    c++;
+                } else if (ch == '/' && c + 1 < line.length() && line.charAt(c + 1) == '/') {
+                    break;
+                } else if (ch == '"' || ch == '\'') {
+                    c = skipLiteral(line, c, ch);
+                } else {
+                    if (ch == '{') {
+                        depth++;
+                    } else if (ch == '}') {
+                        depth--;
+                    }
+                    code.append(ch);
+                }
+            }
+            String trimmed = code.toString().trim();
+
+            if (depthBefore == 0) {
+                owners[lineNo] = trimmed.isEmpty() && line.trim().isEmpty() ? null : CLASS_LEVEL;
+                continue;
+            }
+
+            if (depthBefore == 1) {
+                if (memberStart < 0) {
+                    if (line.trim().isEmpty() || trimmed.equals("}")) {
+                        owners[lineNo] = trimmed.isEmpty() ? null : CLASS_LEVEL;
+                        continue;
+                    }
+                    memberStart = lineNo;
+                }
+                if (memberName == null && !trimmed.isEmpty() && !trimmed.startsWith("@")) {
+                    memberName = declaredName(trimmed);
+                }
+                if (memberName != null && depth == 1 && (trimmed.endsWith(";") || trimmed.endsWith("}"))) {
+                    assign(memberStart, lineNo, memberName);
+                    memberStart = -1;
+                    memberName = null;
+                }
+            } else if (depth == 1 && memberStart >= 0) {
+                assign(memberStart, lineNo, memberName == null ? CLASS_LEVEL : memberName);
+                memberStart = -1;
+                memberName = null;
+            }
+        }
+    }
+
+    private String declaredName(String code) {
+        int paren = code.indexOf('(');
+        int equals = code.indexOf('=');
+        if (paren >= 0 && (equals < 0 || paren < equals)) {
+            Matcher matcher = METHOD_NAME.matcher(code);
+            if (matcher.find()) {
+                String name = matcher.group(1);
+                // Constructors shape every instance, so treat them as class-level
+                return name.equals(className) ? CLASS_LEVEL : name;
+            }
+        }
+        Matcher matcher = FIELD_NAME.matcher(code);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    private void assign(int from, int to, String name) {
+        for (int line = from; line <= to; line++) {
+            owners[line] = name;
+        }
+    }
+
+    private static int skipLiteral(String line, int start, char quote) {
+        for (int c = start + 1; c < line.length(); c++) {
+            char ch = line.charAt(c);
+            if (ch == '\\') {
+                c++;
+            } else if (ch == quote) {
+                return c;
+            }
+        }
+        return line.length();
+    }
+}
@@ -0,0 +1,145 @@
+package utils;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Offline tests for the source index and diff hunk mapping used by impact analysis
+ * A wrong owner here silently skips affected tests, so every declaration shape is covered
+ */
+public class SourceIndexTests {
+
+    private static final String PAGE_SOURCE = String.join("\n",
+        "package pages;",                                           // 1
+        "",                                                         // 2
+        "import org.openqa.selenium.By;",                           // 3
+        "",                                                         // 4
+        "public class LoginPage {",                                 // 5
+        "",                                                         // 6
+        "    private final By userIdField = By.id(\"user\");",      // 7
+        "",                                                         // 8
+        "    @FindBy(id = \"password\")",                           // 9
+        "    private WebElement passwordField;",                    // 10
+        "",                                                         // 11
+        "    private static final String[] ERROR_SELECTORS = {",    // 12
+        "        \".error\",",                                      // 13
+        "        \"[role='alert'] { }\"",                           // 14
+        "    };",                                                   // 15
+        "",                                                         // 16
+        "    public LoginPage(WebDriver driver) {",                 // 17
+        "        this.driver = driver;",                            // 18
+        "    }",                                                    // 19
+        "",                                                         // 20
+        "    /**",                                                  // 21
+        "     * Click login { not a brace }",                       // 22
+        "     */",                                                  // 23
+        "    public void clickLoginButton() {",                     // 24
+        "        if (ready) {",                                     // 25
+        "            button.click(); // }",                         // 26
+        "        }",                                                // 27
+        "    }",                                                    // 28
+        "",                                                         // 29
+        "    public boolean isPasswordMasked()",                    // 30
+        "    {",                                                    // 31
+        "        return true;",                                     // 32
+        "    }",                                                    // 33
+        "}");                                                       // 34
+
+    private final SourceIndex index = new SourceIndex("LoginPage", PAGE_SOURCE);
+
+    @Test(groups = "unit", description = "Package, imports and class header are class-level")
+    public void testClassLevelLines() {
+        Assert.assertEquals(index.ownerOf(1), SourceIndex.CLASS_LEVEL);
+        Assert.assertEquals(index.ownerOf(3), SourceIndex.CLASS_LEVEL);
+        Assert.assertEquals(index.ownerOf(5), SourceIndex.CLASS_LEVEL);
+        Assert.assertEquals(index.ownerOf(34), SourceIndex.CLASS_LEVEL);
+    }
+
+    @Test(groups = "unit", description = "Blank lines between members and out-of-range lines have no owner")
+    public void testBlankAndOutOfRangeLines() {
+        Assert.assertNull(index.ownerOf(0));
+        Assert.assertNull(index.ownerOf(6));
+        Assert.assertNull(index.ownerOf(16));
+        Assert.assertNull(index.ownerOf(29));
+        Assert.assertNull(index.ownerOf(35));
+    }
+
+    @Test(groups = "unit", description = "Field initializers and annotated fields belong to the field")
+    public void testFields() {
+        Assert.assertEquals(index.ownerOf(7), "userIdField");
+        Assert.assertEquals(index.ownerOf(9), "passwordField");
+        Assert.assertEquals(index.ownerOf(10), "passwordField");
+    }
+
+    @Test(groups = "unit", description = "Multi-line array initializers belong to the field, braces in strings ignored")
+    public void testArrayInitializer() {
+        for (int line = 12; line <= 15; line++) {
+            Assert.assertEquals(index.ownerOf(line), "ERROR_SELECTORS", "Line " + line);
+        }
+    }
+
+    @Test(groups = "unit", description = "Constructors are class-level")
+    public void testConstructor() {
+        for (int line = 17; line <= 19; line++) {
+            Assert.assertEquals(index.ownerOf(line), SourceIndex.CLASS_LEVEL, "Line " + line);
+        }
+    }
+
+    @Test(groups = "unit", description = "Doc comments, nested blocks and braces in comments belong to the method")
+    public void testMethods() {
+        for (int line = 21; line <= 28; line++) {
+            Assert.assertEquals(index.ownerOf(line), "clickLoginButton", "Line " + line);
+        }
+        for (int line = 30; line <= 33; line++) {
+            Assert.assertEquals(index.ownerOf(line), "isPasswordMasked", "Line " + line);
+        }
+    }
+
+    @Test(groups = "unit", description = "Modified lines map to their members")
+    public void testModifiedHunks() {
+        Assert.assertEquals(members("@@ -26 +26 @@\n-            button.click();\n+            button.submit();"),
+            set("clickLoginButton"));
+        Assert.assertEquals(members("@@ -13,2 +13,3 @@"), set("ERROR_SELECTORS"));
+        Assert.assertEquals(members("@@ -9 +9 @@\n@@ -32 +32 @@"), set("passwordField", "isPasswordMasked"));
+    }
+
+    @Test(groups = "unit", description = "Pure insertions map to the surrounding or following member")
+    public void testPureInsertions() {
+        // Inside a method body
+        Assert.assertEquals(members("@@ -25,0 +26,2 @@"), set("clickLoginButton"));
+        // After a blank line between members
+        Assert.assertEquals(members("@@ -29,0 +30,4 @@"), set("isPasswordMasked"));
+    }
+
+    @Test(groups = "unit", description = "Pure deletions map to the deleted member")
+    public void testPureDeletions() {
+        Assert.assertEquals(members("@@ -10 +9,0 @@"), set("passwordField"));
+        Assert.assertEquals(members("@@ -30,4 +29,0 @@"), set("isPasswordMasked"));
+    }
+
+    @Test(groups = "unit", description = "Constructor, import and header changes are class-level")
+    public void testClassLevelHunks() {
+        Assert.assertTrue(members("@@ -18 +18 @@").contains(SourceIndex.CLASS_LEVEL));
+        Assert.assertTrue(members("@@ -3,0 +4 @@").contains(SourceIndex.CLASS_LEVEL));
+        Assert.assertTrue(members("@@ -5 +5 @@").contains(SourceIndex.CLASS_LEVEL));
+    }
+
+    @Test(groups = "unit", description = "Diffs without hunks change nothing")
+    public void testEmptyDiff() {
+        Assert.assertEquals(members(""), Collections.<String>emptySet());
+        Assert.assertEquals(members("diff --git a/P.java b/P.java\nindex 1..2 100644"), Collections.<String>emptySet());
+    }
+
+    private Set<String> members(String diff) {
+        return ImpactAnalyzer.membersInDiff(index, diff);
+    }
+
+    private static Set<String> set(String... members) {
+        return new HashSet<String>(Arrays.asList(members));
+    }
+}
@@ -0,0 +1,438 @@
+package utils;
+
+import org.testng.annotations.Test;
+import org.testng.xml.XmlClass;
+import org.testng.xml.XmlInclude;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+
+import java.lang.annotation.Annotation;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Programmatic, parallel-safe TestNG suite builder
+ * Builds suites at runtime from configuration instead of hand-edited XML: every browser
+ * cell of the matrix becomes one TestNG test per unit of capacity, and capacities, thread
+ * counts and data-provider threads are sized to the machine's cores and memory.
+ *
+ * Only parallel="tests" and "none" are generated: each test owns its class instance and
+ * therefore its driver, while "methods"/"classes" would share or serialise drivers.
+ *
+ * -Dsuite.classes=tests.LoginPageTests    test classes for build()
+ * -Dsuite.parallel=tests|none              parallel mode (default tests)
+ * -Dsuite.threads=N                        worker threads (default: one per shard, capped at cores)
+ * -Dsuite.dataProviderThreads=N            data-provider threads (default: cores / worker threads)
+ * -Dsuite.groups=smoke,login               groups to include
+ * -Dsuite.excludedGroups=slow              groups to exclude
+ * -Dsuite.autoSize=true                    size sessions per browser to the machine (default: only with -Dbrowsers,
+ *                                          otherwise one session)
+ * -Dbrowser.memoryMb.chrome=600            memory budget per browser session
+ *
+ * Tests with the parameter suite.browserless=true (unit tests) are kept as they are, once.
+ */
+public class SuiteBuilder {
+
+    public static final String DEFAULT_SUITE_NAME = "Janitri Login Page Test Suite";
+    public static final String DEFAULT_TEST_NAME = "Login Page Tests";
+    public static final String BROWSER_PARAMETER = "browser";
+    public static final String VERSION_PARAMETER = "browserVersion";
+    public static final String CAPACITY_PARAMETER = "browserCapacity";
+
+    // Marks suites that were already expanded, so listeners do not fan them out twice
+    public static final String EXPANDED_PARAMETER = "suite.expanded";
+
+    // Marks tests that need no browser and must not be fanned out over the matrix
+    public static final String BROWSERLESS_PARAMETER = "suite.browserless";
+
+    private static final long MB = 1024L * 1024L;
+    private static final long OS_RESERVE_MB = 1024;
+    private static final long DEFAULT_BROWSER_MEMORY_MB = 700;
+    private static final Map<String, Long> BROWSER_MEMORY_MB = new HashMap<String, Long>();
+
+    static {
+        BROWSER_MEMORY_MB.put("chrome", 600L);
+        BROWSER_MEMORY_MB.put("edge", 600L);
+        BROWSER_MEMORY_MB.put("firefox", 700L);
+    }
+
+    private String suiteName = DEFAULT_SUITE_NAME;
+    private final List<String> classNames = new ArrayList<String>();
+    private List<BrowserMatrix.Entry> browsers = BrowserMatrix.fromSystemProperties();
+    private XmlSuite.ParallelMode parallel = XmlSuite.ParallelMode.TESTS;
+    private int threadCount;
+    private int dataProviderThreadCount;
+    private boolean autoSize;
+    private final List<String> includedGroups = new ArrayList<String>();
+    private final List<String> excludedGroups = new ArrayList<String>();
+    private final List<String> listeners = new ArrayList<String>(Arrays.asList(
+        "listeners.ImpactAnalysisListener", "listeners.BrowserMatrixListener", "listeners.ResourceMonitorListener",
+        "listeners.InteractionRetryListener"));
+
+    /**
+     * Create a builder configured from system properties
+     * @return builder ready to build() or applyTo() a suite
+     */
+    public static SuiteBuilder fromConfiguration() {
+        SuiteBuilder builder = new SuiteBuilder();
+        for (String className : split(System.getProperty("suite.classes", "tests.LoginPageTests"))) {
+            builder.testClass(className);
+        }
+        builder.parallel(System.getProperty("suite.parallel", "tests"));
+        builder.threadCount(Integer.getInteger("suite.threads", 0));
+        builder.dataProviderThreadCount(Integer.getInteger("suite.dataProviderThreads", 0));
+        // A plain run keeps one session so timings are not skewed by other browsers on the machine
+        String autoSize = System.getProperty("suite.autoSize");
+        builder.autoSize(autoSize == null
+            ? System.getProperty("browsers") != null
+            : autoSize.isEmpty() || Boolean.parseBoolean(autoSize));
+        builder.includedGroups.addAll(split(System.getProperty("suite.groups", "")));
+        builder.excludedGroups.addAll(split(System.getProperty("suite.excludedGroups", "")));
+        return builder;
+    }
+
+    public SuiteBuilder suiteName(String suiteName) {
+        this.suiteName = suiteName;
+        return this;
+    }
+
+    public SuiteBuilder testClass(String className) {
+        classNames.add(className);
+        return this;
+    }
+
+    public SuiteBuilder browsers(List<BrowserMatrix.Entry> browsers) {
+        this.browsers = new ArrayList<BrowserMatrix.Entry>(browsers);
+        return this;
+    }
+
+    /**
+     * @param mode - "tests" or "none"; modes that are unsafe with one driver per class instance fall back to tests
+     */
+    public SuiteBuilder parallel(String mode) {
+        XmlSuite.ParallelMode requested = XmlSuite.ParallelMode.getValidParallel(mode);
+        if (requested == XmlSuite.ParallelMode.NONE) {
+            this.parallel = XmlSuite.ParallelMode.NONE;
+        } else {
+            if (requested != XmlSuite.ParallelMode.TESTS) {
+                System.out.println("Parallel mode '" + mode + "' would share a driver between threads, using 'tests'");
+            }
+            this.parallel = XmlSuite.ParallelMode.TESTS;
+        }
+        return this;
+    }
+
+    /**
+     * @param threadCount - worker threads, 0 to size automatically
+     */
+    public SuiteBuilder threadCount(int threadCount) {
+        this.threadCount = threadCount;
+        return this;
+    }
+
+    /**
+     * @param dataProviderThreadCount - data-provider threads, 0 to size automatically
+     */
+    public SuiteBuilder dataProviderThreadCount(int dataProviderThreadCount) {
+        this.dataProviderThreadCount = dataProviderThreadCount;
+        return this;
+    }
+
+    public SuiteBuilder autoSize(boolean autoSize) {
+        this.autoSize = autoSize;
+        return this;
+    }
+
+    public SuiteBuilder includeGroup(String group) {
+        includedGroups.add(group);
+        return this;
+    }
+
+    public SuiteBuilder excludeGroup(String group) {
+        excludedGroups.add(group);
+        return this;
+    }
+
+    public SuiteBuilder listener(String className) {
+        listeners.add(className);
+        return this;
+    }
+
+    /**
+     * Build a new suite with one test holding all configured classes, expanded over the matrix
+     * @return ready-to-run suite
+     */
+    public XmlSuite build() {
+        XmlSuite suite = new XmlSuite();
+        suite.setName(suiteName);
+        suite.setListeners(new ArrayList<String>(new LinkedHashSet<String>(listeners)));
+
+        XmlTest test = new XmlTest(suite);
+        test.setName(DEFAULT_TEST_NAME);
+        List<XmlClass> classes = new ArrayList<XmlClass>();
+        for (String className : classNames) {
+            classes.add(new XmlClass(className));
+        }
+        test.setXmlClasses(classes);
+
+        applyTo(suite);
+        return suite;
+    }
+
+    /**
+     * Expand an existing suite in place: one test per browser shard, parallel mode,
+     * thread counts and groups from this builder
+     * @param suite - suite loaded from XML or built by build()
+     */
+    public void applyTo(XmlSuite suite) {
+        if ("true".equals(suite.getParameter(EXPANDED_PARAMETER))) {
+            return;
+        }
+
+        List<BrowserMatrix.Entry> sized = sizeCapacities(browsers);
+        List<XmlTest> originals = new ArrayList<XmlTest>(suite.getTests());
+        suite.getTests().clear();
+        int tests = 0;
+        for (XmlTest original : originals) {
+            if ("true".equals(original.getParameter(BROWSERLESS_PARAMETER))) {
+                original.setIncludedGroups(merge(original.getIncludedGroups(), includedGroups));
+                original.setExcludedGroups(merge(original.getExcludedGroups(), excludedGroups));
+                suite.getTests().add(original);
+                tests++;
+                continue;
+            }
+            for (BrowserMatrix.Entry entry : sized) {
+                for (int shard = 0; shard < entry.getCapacity(); shard++) {
+                    if (addShard(suite, original, entry, shard)) {
+                        tests++;
+                    }
+                }
+            }
+        }
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        int threads = threadCount > 0 ? threadCount : Math.max(1, Math.min(tests, cores));
+        if (parallel == XmlSuite.ParallelMode.NONE) {
+            threads = 1;
+        }
+        int dataProviderThreads = dataProviderThreadCount > 0
+            ? dataProviderThreadCount : Math.max(1, cores / threads);
+
+        suite.setParallel(parallel);
+        suite.setThreadCount(threads);
+        suite.setDataProviderThreadCount(dataProviderThreads);
+
+        Map<String, String> parameters = new HashMap<String, String>(suite.getParameters());
+        parameters.put(EXPANDED_PARAMETER, "true");
+        suite.setParameters(parameters);
+
+        System.out.println("Suite '" + suite.getName() + "': " + tests + " tests over " + sized.size()
+            + " browsers, parallel=" + parallel + ", threads=" + threads
+            + ", dataProviderThreads=" + dataProviderThreads);
+    }
+
+    /**
+     * Resolve automatic capacities: cores and available memory are split evenly across the
+     * browsers, and each browser gets as many sessions as fit in its share
+     */
+    private List<BrowserMatrix.Entry> sizeCapacities(List<BrowserMatrix.Entry> entries) {
+        int cores = Runtime.getRuntime().availableProcessors();
+        long memoryMb = availableMemoryMb();
+        boolean remote = RemoteDriverFactory.isEnabled();
+
+        List<BrowserMatrix.Entry> sized = new ArrayList<BrowserMatrix.Entry>();
+        for (BrowserMatrix.Entry entry : entries) {
+            if (entry.getCapacity() != BrowserMatrix.AUTO_CAPACITY) {
+                sized.add(entry);
+                continue;
+            }
+            if (!autoSize || parallel == XmlSuite.ParallelMode.NONE) {
+                sized.add(entry.withCapacity(1));
+                continue;
+            }
+
+            int coreShare = Math.max(1, cores / entries.size());
+            int capacity = coreShare;
+            // Remote sessions do not consume local memory
+            if (!remote) {
+                long memoryShare = memoryMb / entries.size();
+                long fit = memoryShare / Long.getLong("browser.memoryMb." + entry.getBrowser(),
+                    BROWSER_MEMORY_MB.getOrDefault(entry.getBrowser(), DEFAULT_BROWSER_MEMORY_MB));
+                capacity = (int) Math.max(1, Math.min(coreShare, fit));
+            }
+            sized.add(entry.withCapacity(capacity));
+        }
+        return sized;
+    }
+
+    /**
+     * Physical memory left for browsers after the OS reserve and this JVM's heap
+     */
+    private static long availableMemoryMb() {
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof com.sun.management.OperatingSystemMXBean) {
+            long totalMb = ((com.sun.management.OperatingSystemMXBean) os).getTotalPhysicalMemorySize() / MB;
+            long jvmMb = Runtime.getRuntime().maxMemory() / MB;
+            return Math.max(0, totalMb - jvmMb - OS_RESERVE_MB);
+        }
+        // Unknown platform: size by cores only
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * Create the test for one shard of one browser; XmlTest registers itself with the suite
+     * @return true if the shard received at least one class
+     */
+    private boolean addShard(XmlSuite suite, XmlTest original, BrowserMatrix.Entry entry, int shard) {
+        List<String> included = merge(original.getIncludedGroups(), includedGroups);
+        List<String> excluded = merge(original.getExcludedGroups(), excludedGroups);
+        List<XmlClass> classes = new ArrayList<XmlClass>();
+        for (XmlClass xmlClass : original.getXmlClasses()) {
+            XmlClass copy = new XmlClass(xmlClass.getName());
+            List<String> methods = shardMethods(xmlClass, entry.getCapacity(), shard, included, excluded);
+            if (methods == null) {
+                copy.setIncludedMethods(xmlClass.getIncludedMethods());
+            } else if (methods.isEmpty()) {
+                continue;
+            } else {
+                List<XmlInclude> includes = new ArrayList<XmlInclude>();
+                for (String method : methods) {
+                    includes.add(new XmlInclude(method));
+                }
+                copy.setIncludedMethods(includes);
+            }
+            copy.setExcludedMethods(xmlClass.getExcludedMethods());
+            classes.add(copy);
+        }
+        if (classes.isEmpty()) {
+            return false;
+        }
+
+        XmlTest test = new XmlTest(suite);
+        String shardLabel = entry.getCapacity() > 1 ? " " + (shard + 1) + "/" + entry.getCapacity() : "";
+        test.setName(original.getName() + " [" + entry.getLabel() + shardLabel + "]");
+        test.setXmlClasses(classes);
+        test.setIncludedGroups(included);
+        test.setExcludedGroups(excluded);
+        test.setPreserveOrder(original.getPreserveOrder());
+
+        Map<String, String> parameters = new HashMap<String, String>(original.getLocalParameters());
+        parameters.put(BROWSER_PARAMETER, entry.getBrowser());
+        if (entry.getVersion() != null) {
+            parameters.put(VERSION_PARAMETER, entry.getVersion());
+        }
+        parameters.put(CAPACITY_PARAMETER, String.valueOf(entry.getCapacity()));
+        test.setParameters(parameters);
+        return true;
+    }
+
+    /**
+     * Pick the methods of a class that belong to a shard, round-robin in priority order
+     * Methods outside the group filter are left out, so no shard starts a browser for nothing
+     * @return method names for the shard, or null if the class needs neither sharding nor filtering
+     */
+    private List<String> shardMethods(XmlClass xmlClass, int shards, int shard,
+                                      List<String> included, List<String> excluded) {
+        if (shards == 1 && included.isEmpty() && excluded.isEmpty()) {
+            return null;
+        }
+
+        List<String> candidates = new ArrayList<String>();
+        if (!xmlClass.getIncludedMethods().isEmpty()) {
+            for (XmlInclude include : xmlClass.getIncludedMethods()) {
+                candidates.add(include.getName());
+            }
+        } else {
+            List<Method> testMethods = new ArrayList<Method>();
+            for (Method method : xmlClass.getSupportClass().getMethods()) {
+                if (isTestMethod(method) && inGroups(groupsOf(method), included, excluded)) {
+                    testMethods.add(method);
+                }
+            }
+            testMethods.sort(Comparator.comparingInt(SuiteBuilder::priorityOf).thenComparing(Method::getName));
+            for (Method method : testMethods) {
+                candidates.add(method.getName());
+            }
+        }
+
+        List<String> assigned = new ArrayList<String>();
+        for (int i = shard; i < candidates.size(); i += shards) {
+            assigned.add(candidates.get(i));
+        }
+        return assigned;
+    }
+
+    /**
+     * A public method is a test if it carries @Test, or if its class does and the method has
+     * no other TestNG annotation (configuration methods stay configuration methods)
+     */
+    private static boolean isTestMethod(Method method) {
+        if (method.isAnnotationPresent(Test.class)) {
+            return true;
+        }
+        if (method.getDeclaringClass() == Object.class || !method.getDeclaringClass().isAnnotationPresent(Test.class)) {
+            return false;
+        }
+        for (Annotation annotation : method.getAnnotations()) {
+            if (annotation.annotationType().getName().startsWith("org.testng.annotations.")) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return groups of the method's own @Test merged with those of its class's @Test
+     */
+    private static List<String> groupsOf(Method method) {
+        List<String> groups = new ArrayList<String>();
+        Test classTest = method.getDeclaringClass().getAnnotation(Test.class);
+        if (classTest != null) {
+            groups.addAll(Arrays.asList(classTest.groups()));
+        }
+        Test methodTest = method.getAnnotation(Test.class);
+        if (methodTest != null) {
+            groups.addAll(Arrays.asList(methodTest.groups()));
+        }
+        return groups;
+    }
+
+    private static int priorityOf(Method method) {
+        Test test = method.isAnnotationPresent(Test.class)
+            ? method.getAnnotation(Test.class) : method.getDeclaringClass().getAnnotation(Test.class);
+        return test.priority();
+    }
+
+    private static boolean inGroups(List<String> groups, List<String> included, List<String> excluded) {
+        if (!Collections.disjoint(groups, excluded)) {
+            return false;
+        }
+        return included.isEmpty() || !Collections.disjoint(groups, included);
+    }
+
+    private static List<String> merge(List<String> first, List<String> second) {
+        Set<String> merged = new LinkedHashSet<String>(first);
+        merged.addAll(second);
+        return new ArrayList<String>(merged);
+    }
+
+    private static List<String> split(String value) {
+        List<String> parts = new ArrayList<String>();
+        for (String part : value.split(",")) {
+            if (!part.trim().isEmpty()) {
+                parts.add(part.trim());
+            }
+        }
+        return parts;
+    }
+}
@@ -0,0 +1,203 @@
+package utils;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.testng.xml.XmlClass;
+import org.testng.xml.XmlInclude;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Offline tests for suite expansion: sharding, group filtering and capacity sizing
+ * Fixed browsers and capacities keep the results independent of the machine running them
+ */
+public class SuiteBuilderTests {
+
+    /**
+     * Fixture with method-level groups; never run itself, only reflected on
+     */
+    public static class GroupedMethods {
+        @Test(priority = 1, groups = "smoke")
+        public void first() {
+        }
+
+        @Test(priority = 2, groups = "visual")
+        public void second() {
+        }
+
+        @Test(priority = 3, groups = {"smoke", "performance"})
+        public void third() {
+        }
+
+        @Test(priority = 4)
+        public void fourth() {
+        }
+
+        @BeforeMethod
+        public void setUp() {
+        }
+    }
+
+    /**
+     * Fixture whose groups come from a class-level @Test
+     */
+    @Test(groups = "visual")
+    public static class ClassGroup {
+        public void checkHeader() {
+        }
+
+        @Test(groups = "smoke")
+        public void checkForm() {
+        }
+
+        @BeforeMethod
+        public void setUp() {
+        }
+    }
+
+    @Test(groups = "unit", description = "Each browser gets one test per unit of capacity with methods round-robin by priority")
+    public void testShardsPerCapacity() {
+        XmlSuite suite = suite(GroupedMethods.class);
+        builder(new BrowserMatrix.Entry("chrome", null, 2), new BrowserMatrix.Entry("firefox", null, 1))
+            .threadCount(3)
+            .applyTo(suite);
+
+        Assert.assertEquals(names(suite), Arrays.asList(
+            "Login [chrome 1/2]", "Login [chrome 2/2]", "Login [firefox]"));
+        Assert.assertEquals(methods(suite.getTests().get(0)), Arrays.asList("first", "third"));
+        Assert.assertEquals(methods(suite.getTests().get(1)), Arrays.asList("second", "fourth"));
+        // A single shard with no group filter keeps the class unrestricted
+        Assert.assertEquals(methods(suite.getTests().get(2)), Collections.<String>emptyList());
+    }
+
+    @Test(groups = "unit", description = "Shards carry browser, version and capacity parameters")
+    public void testShardParameters() {
+        XmlSuite suite = suite(GroupedMethods.class);
+        builder(new BrowserMatrix.Entry("chrome", "116", 2)).threadCount(2).applyTo(suite);
+
+        XmlTest shard = suite.getTests().get(0);
+        Assert.assertEquals(shard.getName(), "Login [chrome-116 1/2]");
+        Assert.assertEquals(shard.getParameter(SuiteBuilder.BROWSER_PARAMETER), "chrome");
+        Assert.assertEquals(shard.getParameter(SuiteBuilder.VERSION_PARAMETER), "116");
+        Assert.assertEquals(shard.getParameter(SuiteBuilder.CAPACITY_PARAMETER), "2");
+        Assert.assertEquals(shard.getParameter("env"), "dev");
+        Assert.assertEquals(suite.getParameter(SuiteBuilder.EXPANDED_PARAMETER), "true");
+    }
+
+    @Test(groups = "unit", description = "Method groups filter the shards and shards without methods are dropped")
+    public void testGroupFilter() {
+        XmlSuite suite = suite(GroupedMethods.class);
+        builder(new BrowserMatrix.Entry("chrome", null, 3))
+            .includeGroup("smoke")
+            .excludeGroup("performance")
+            .threadCount(3)
+            .applyTo(suite);
+
+        Assert.assertEquals(names(suite), Collections.singletonList("Login [chrome 1/3]"));
+        Assert.assertEquals(methods(suite.getTests().get(0)), Collections.singletonList("first"));
+        Assert.assertEquals(suite.getTests().get(0).getIncludedGroups(), Collections.singletonList("smoke"));
+        Assert.assertEquals(suite.getTests().get(0).getExcludedGroups(), Collections.singletonList("performance"));
+    }
+
+    @Test(groups = "unit", description = "Class-level @Test groups and unannotated public methods count")
+    public void testClassLevelGroups() {
+        XmlSuite suite = suite(ClassGroup.class);
+        builder(new BrowserMatrix.Entry("chrome", null, 1)).includeGroup("visual").applyTo(suite);
+
+        Assert.assertEquals(names(suite), Collections.singletonList("Login [chrome]"));
+        Assert.assertEquals(methods(suite.getTests().get(0)), Arrays.asList("checkForm", "checkHeader"));
+
+        XmlSuite smokeOnly = suite(ClassGroup.class);
+        builder(new BrowserMatrix.Entry("chrome", null, 1)).includeGroup("smoke").applyTo(smokeOnly);
+        Assert.assertEquals(methods(smokeOnly.getTests().get(0)), Collections.singletonList("checkForm"));
+    }
+
+    @Test(groups = "unit", description = "Automatic capacity stays at one session unless auto-sizing is on")
+    public void testAutoCapacityWithoutAutoSize() {
+        XmlSuite suite = suite(GroupedMethods.class);
+        builder(new BrowserMatrix.Entry("chrome", null, BrowserMatrix.AUTO_CAPACITY),
+                new BrowserMatrix.Entry("edge", null, BrowserMatrix.AUTO_CAPACITY))
+            .autoSize(false)
+            .applyTo(suite);
+
+        Assert.assertEquals(names(suite), Arrays.asList("Login [chrome]", "Login [edge]"));
+        Assert.assertEquals(suite.getTests().get(1).getParameter(SuiteBuilder.CAPACITY_PARAMETER), "1");
+    }
+
+    @Test(groups = "unit", description = "Threads default to one per test capped at cores, and to one without parallelism")
+    public void testThreadCounts() {
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        XmlSuite parallel = suite(GroupedMethods.class);
+        builder(new BrowserMatrix.Entry("chrome", null, 2), new BrowserMatrix.Entry("firefox", null, 2)).applyTo(parallel);
+        Assert.assertEquals(parallel.getParallel(), XmlSuite.ParallelMode.TESTS);
+        Assert.assertEquals(parallel.getThreadCount(), Math.min(4, cores));
+        Assert.assertEquals(parallel.getDataProviderThreadCount(), Math.max(1, cores / Math.min(4, cores)));
+
+        XmlSuite serial = suite(GroupedMethods.class);
+        builder(new BrowserMatrix.Entry("chrome", null, 2)).parallel("none").applyTo(serial);
+        Assert.assertEquals(serial.getParallel(), XmlSuite.ParallelMode.NONE);
+        Assert.assertEquals(serial.getThreadCount(), 1);
+    }
+
+    @Test(groups = "unit", description = "Browserless tests are kept once, expanded suites are left alone")
+    public void testBrowserlessAndExpandedSuites() {
+        XmlSuite suite = suite(GroupedMethods.class);
+        XmlTest unit = new XmlTest(suite);
+        unit.setName("Unit");
+        unit.setXmlClasses(new ArrayList<XmlClass>(Collections.singletonList(new XmlClass(ClassGroup.class))));
+        Map<String, String> unitParameters = new HashMap<String, String>();
+        unitParameters.put(SuiteBuilder.BROWSERLESS_PARAMETER, "true");
+        unit.setParameters(unitParameters);
+
+        SuiteBuilder builder = builder(new BrowserMatrix.Entry("chrome", null, 2)).threadCount(3);
+        builder.applyTo(suite);
+        builder.applyTo(suite);
+
+        Assert.assertEquals(names(suite), Arrays.asList("Login [chrome 1/2]", "Login [chrome 2/2]", "Unit"));
+        Assert.assertNull(suite.getTests().get(2).getParameter(SuiteBuilder.BROWSER_PARAMETER));
+    }
+
+    private static SuiteBuilder builder(BrowserMatrix.Entry... browsers) {
+        return new SuiteBuilder().browsers(Arrays.asList(browsers));
+    }
+
+    /**
+     * Suite with one test "Login" over the fixture class and a local parameter env=dev
+     */
+    private static XmlSuite suite(Class<?> fixture) {
+        XmlSuite suite = new XmlSuite();
+        suite.setName("Fixture Suite");
+        XmlTest test = new XmlTest(suite);
+        test.setName("Login");
+        test.setXmlClasses(new ArrayList<XmlClass>(Collections.singletonList(new XmlClass(fixture))));
+        Map<String, String> parameters = new HashMap<String, String>();
+        parameters.put("env", "dev");
+        test.setParameters(parameters);
+        return suite;
+    }
+
+    private static List<String> names(XmlSuite suite) {
+        List<String> names = new ArrayList<String>();
+        for (XmlTest test : suite.getTests()) {
+            names.add(test.getName());
+        }
+        return names;
+    }
+
+    private static List<String> methods(XmlTest test) {
+        List<String> methods = new ArrayList<String>();
+        for (XmlInclude include : test.getXmlClasses().get(0).getIncludedMethods()) {
+            methods.add(include.getName());
+        }
+        return methods;
+    }
+}
@@ -0,0 +1,241 @@
+package utils;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tiled image diff for visual regression checks
+ * Each tile gets a 64-bit hash of its exact pixels; tiles whose hashes match are skipped and
+ * only changed tiles are compared pixel by pixel with a per-channel tolerance. Perceptual
+ * hashes are deliberately not used for the skip, as they miss glyph swaps inside text. Tile rows are
+ * diffed on a shared pool so concurrent checks from parallel tests never oversubscribe the CPU.
+ */
+public class TileDiff {
+
+    public static final int DEFAULT_TILE_SIZE = 64;
+    public static final int DEFAULT_CHANNEL_TOLERANCE = 16;
+    public static final double DEFAULT_TILE_MISMATCH_RATIO = 0.005;
+
+    // Shared across all checks in the JVM, sized to the machine
+    private static final ExecutorService POOL = Executors.newFixedThreadPool(
+        Runtime.getRuntime().availableProcessors(), daemonThreads());
+
+    private final int tileSize;
+    private final int channelTolerance;
+    private final double tileMismatchRatio;
+
+    public TileDiff() {
+        this(DEFAULT_TILE_SIZE, DEFAULT_CHANNEL_TOLERANCE, DEFAULT_TILE_MISMATCH_RATIO);
+    }
+
+    /**
+     * @param tileSize - tile edge length in pixels
+     * @param channelTolerance - max per-channel difference (0-255) for two pixels to count as equal
+     * @param tileMismatchRatio - fraction of differing pixels above which a tile fails
+     */
+    public TileDiff(int tileSize, int channelTolerance, double tileMismatchRatio) {
+        this.tileSize = tileSize;
+        this.channelTolerance = channelTolerance;
+        this.tileMismatchRatio = tileMismatchRatio;
+    }
+
+    /**
+     * Pre-computed pixels and tile hashes of one image, reusable across comparisons
+     */
+    public final class Fingerprint {
+        final int width;
+        final int height;
+        final int columns;
+        final int rows;
+        final int[] pixels;
+        final long[] tileHashes;
+
+        Fingerprint(BufferedImage image) {
+            this.width = image.getWidth();
+            this.height = image.getHeight();
+            this.columns = (width + tileSize - 1) / tileSize;
+            this.rows = (height + tileSize - 1) / tileSize;
+            this.pixels = image.getRGB(0, 0, width, height, null, 0, width);
+            this.tileHashes = new long[columns * rows];
+            for (int row = 0; row < rows; row++) {
+                for (int column = 0; column < columns; column++) {
+                    tileHashes[row * columns + column] = tileHash(pixels, width, height, column, row);
+                }
+            }
+        }
+    }
+
+    /**
+     * Outcome of a comparison
+     */
+    public static class Result {
+        private final int totalTiles;
+        private final int suspiciousTiles;
+        private final List<int[]> mismatchedTiles;
+        private final boolean sizeMismatch;
+
+        Result(int totalTiles, int suspiciousTiles, List<int[]> mismatchedTiles, boolean sizeMismatch) {
+            this.totalTiles = totalTiles;
+            this.suspiciousTiles = suspiciousTiles;
+            this.mismatchedTiles = mismatchedTiles;
+            this.sizeMismatch = sizeMismatch;
+        }
+
+        public boolean matches() {
+            return !sizeMismatch && mismatchedTiles.isEmpty();
+        }
+
+        public boolean isSizeMismatch() {
+            return sizeMismatch;
+        }
+
+        public int getTotalTiles() {
+            return totalTiles;
+        }
+
+        public int getSuspiciousTiles() {
+            return suspiciousTiles;
+        }
+
+        /**
+         * @return mismatched tiles as {x, y, width, height} rectangles in pixels
+         */
+        public List<int[]> getMismatchedTiles() {
+            return mismatchedTiles;
+        }
+
+        @Override
+        public String toString() {
+            if (sizeMismatch) {
+                return "image size differs from baseline";
+            }
+            return mismatchedTiles.size() + " mismatched of " + suspiciousTiles + " suspicious / "
+                + totalTiles + " tiles";
+        }
+    }
+
+    /**
+     * Compute the reusable fingerprint of an image
+     * @param image - image to fingerprint
+     * @return fingerprint holding pixels and per-tile hashes
+     */
+    public Fingerprint fingerprint(BufferedImage image) {
+        return new Fingerprint(image);
+    }
+
+    /**
+     * Compare an image against a baseline fingerprint
+     * @param baseline - fingerprint of the baseline image
+     * @param actual - freshly captured image
+     * @return comparison result
+     */
+    public Result compare(Fingerprint baseline, BufferedImage actual) {
+        if (actual.getWidth() != baseline.width || actual.getHeight() != baseline.height) {
+            return new Result(baseline.tileHashes.length, 0, Collections.<int[]>emptyList(), true);
+        }
+
+        final int[] actualPixels = actual.getRGB(0, 0, baseline.width, baseline.height, null, 0, baseline.width);
+        final AtomicInteger suspicious = new AtomicInteger();
+        List<Callable<List<int[]>>> rowTasks = new ArrayList<Callable<List<int[]>>>();
+
+        for (int row = 0; row < baseline.rows; row++) {
+            final int tileRow = row;
+            rowTasks.add(() -> {
+                List<int[]> mismatched = new ArrayList<int[]>();
+                for (int column = 0; column < baseline.columns; column++) {
+                    int index = tileRow * baseline.columns + column;
+                    if (tileHash(actualPixels, baseline.width, baseline.height, column, tileRow)
+                            == baseline.tileHashes[index]) {
+                        continue;
+                    }
+                    suspicious.incrementAndGet();
+                    int[] tile = tileBounds(baseline.width, baseline.height, column, tileRow);
+                    if (!pixelsMatch(baseline.pixels, actualPixels, baseline.width, tile)) {
+                        mismatched.add(tile);
+                    }
+                }
+                return mismatched;
+            });
+        }
+
+        List<int[]> mismatchedTiles = new ArrayList<int[]>();
+        try {
+            for (Future<List<int[]>> future : POOL.invokeAll(rowTasks)) {
+                mismatchedTiles.addAll(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while diffing screenshot", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Screenshot diff failed: " + e.getCause().getMessage(), e.getCause());
+        }
+        return new Result(baseline.tileHashes.length, suspicious.get(), mismatchedTiles, false);
+    }
+
+    /**
+     * Full pixel comparison of one tile with per-channel tolerance
+     */
+    private boolean pixelsMatch(int[] expected, int[] actual, int width, int[] tile) {
+        int allowed = (int) (tile[2] * tile[3] * tileMismatchRatio);
+        int differing = 0;
+        for (int y = tile[1]; y < tile[1] + tile[3]; y++) {
+            int offset = y * width;
+            for (int x = tile[0]; x < tile[0] + tile[2]; x++) {
+                int a = expected[offset + x];
+                int b = actual[offset + x];
+                if (a != b && channelDelta(a, b) > channelTolerance && ++differing > allowed) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 64-bit FNV-1a style hash over the exact RGB values of one tile
+     * Any changed pixel changes the hash (barring collisions), so no real change is skipped
+     */
+    private long tileHash(int[] pixels, int width, int height, int column, int row) {
+        int[] tile = tileBounds(width, height, column, row);
+        long hash = 0xcbf29ce484222325L;
+        for (int y = 0; y < tile[3]; y++) {
+            int offset = (tile[1] + y) * width + tile[0];
+            for (int x = 0; x < tile[2]; x++) {
+                hash ^= pixels[offset + x] & 0xFFFFFF;
+                hash *= 0x100000001b3L;
+            }
+        }
+        return hash;
+    }
+
+    private int[] tileBounds(int width, int height, int column, int row) {
+        int x = column * tileSize;
+        int y = row * tileSize;
+        return new int[] {x, y, Math.min(tileSize, width - x), Math.min(tileSize, height - y)};
+    }
+
+    private static int channelDelta(int a, int b) {
+        int red = Math.abs(((a >> 16) & 0xFF) - ((b >> 16) & 0xFF));
+        int green = Math.abs(((a >> 8) & 0xFF) - ((b >> 8) & 0xFF));
+        int blue = Math.abs((a & 0xFF) - (b & 0xFF));
+        return Math.max(red, Math.max(green, blue));
+    }
+
+    private static ThreadFactory daemonThreads() {
+        final AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "visual-diff-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,140 @@
+package utils;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+/**
+ * Offline tests for the tiled diff on synthetic images
+ * Checks that the tile-hash skip never hides a real change and that tolerance only absorbs noise
+ */
+public class TileDiffTests {
+
+    private static final int WIDTH = 640;
+    private static final int HEIGHT = 320;
+
+    // 5x7 bitmap glyphs; '4' and '9' share most strokes, like a one-character text change
+    private static final String[] GLYPH_4 = {"...#.", "..##.", ".#.#.", "#..#.", "#####", "...#.", "...#."};
+    private static final String[] GLYPH_9 = {".###.", "#...#", "#...#", ".####", "....#", "...#.", ".##.."};
+
+    // Mirrored 8x8 glyphs with identical ink per 8x8 cell, which perceptual hashes cannot tell apart
+    private static final String[] GLYPH_B = {"##......", "##......", "##......", "######..", "##....#.", "##....#.", "##....#.", "######.."};
+    private static final String[] GLYPH_D = {"......##", "......##", "......##", "..######", ".#....##", ".#....##", ".#....##", "..######"};
+
+    private final TileDiff diff = new TileDiff();
+
+    @Test(groups = "unit", description = "Identical images match without any suspicious tile")
+    public void testIdenticalImage() {
+        BufferedImage baseline = loginLikeImage("1234");
+        TileDiff.Result result = diff.compare(diff.fingerprint(baseline), loginLikeImage("1234"));
+
+        Assert.assertTrue(result.matches(), result.toString());
+        Assert.assertEquals(result.getSuspiciousTiles(), 0);
+        Assert.assertEquals(result.getTotalTiles(), 10 * 5);
+    }
+
+    @Test(groups = "unit", description = "A one-character change inside one tile is reported in that tile only")
+    public void testSmallTextChangeInsideOneTile() {
+        TileDiff.Result result = diff.compare(diff.fingerprint(loginLikeImage("1234")), loginLikeImage("1239"));
+
+        Assert.assertFalse(result.matches(), "Changed character must not be skipped");
+        Assert.assertEquals(result.getMismatchedTiles().size(), 1, result.toString());
+        int[] tile = result.getMismatchedTiles().get(0);
+        Assert.assertEquals(tile[0], 128);
+        Assert.assertEquals(tile[1], 64);
+    }
+
+    @Test(groups = "unit", description = "A mirrored glyph with the same ink in the same cell is reported")
+    public void testGlyphSwapWithSameInk() {
+        BufferedImage baseline = loginLikeImage("1234");
+        BufferedImage swapped = loginLikeImage("1234");
+        drawGlyph(baseline, GLYPH_B, 128, 64);
+        drawGlyph(swapped, GLYPH_D, 128, 64);
+
+        TileDiff.Result result = diff.compare(diff.fingerprint(baseline), swapped);
+
+        Assert.assertFalse(result.matches(), "Glyph swap must not be skipped: " + result);
+        Assert.assertEquals(result.getMismatchedTiles().size(), 1, result.toString());
+    }
+
+    @Test(groups = "unit", description = "A flat recolour with unchanged structure is detected")
+    public void testFlatRecolour() {
+        BufferedImage baseline = loginLikeImage("1234");
+        BufferedImage recoloured = loginLikeImage("1234");
+        Graphics2D graphics = recoloured.createGraphics();
+        graphics.setColor(new Color(40, 160, 90));
+        graphics.fillRect(0, 0, WIDTH, 48);
+        graphics.dispose();
+
+        TileDiff.Result result = diff.compare(diff.fingerprint(baseline), recoloured);
+
+        Assert.assertFalse(result.matches());
+        Assert.assertEquals(result.getMismatchedTiles().size(), WIDTH / TileDiff.DEFAULT_TILE_SIZE);
+    }
+
+    @Test(groups = "unit", description = "Rendering noise within the channel tolerance is not a mismatch")
+    public void testNoiseWithinTolerance() {
+        BufferedImage noisy = loginLikeImage("1234");
+        for (int x = 100; x < 140; x++) {
+            noisy.setRGB(x, 200, new Color(245, 245, 245).getRGB());
+        }
+
+        TileDiff.Result result = diff.compare(diff.fingerprint(loginLikeImage("1234")), noisy);
+
+        Assert.assertTrue(result.matches(), result.toString());
+        Assert.assertTrue(result.getSuspiciousTiles() > 0, "Changed tiles must still be compared pixel by pixel");
+    }
+
+    @Test(groups = "unit", description = "Images of different size never match")
+    public void testSizeMismatch() {
+        BufferedImage smaller = new BufferedImage(WIDTH, HEIGHT - 1, BufferedImage.TYPE_INT_RGB);
+
+        TileDiff.Result result = diff.compare(diff.fingerprint(loginLikeImage("1234")), smaller);
+
+        Assert.assertFalse(result.matches());
+        Assert.assertTrue(result.isSizeMismatch());
+    }
+
+    /**
+     * White page with a coloured header and a line of glyphs at (130, 90), inside tile column 2, row 1
+     */
+    private static BufferedImage loginLikeImage(String digits) {
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.WHITE);
+        graphics.fillRect(0, 0, WIDTH, HEIGHT);
+        graphics.setColor(new Color(40, 90, 200));
+        graphics.fillRect(0, 0, WIDTH, 48);
+
+        graphics.setColor(Color.BLACK);
+        for (int i = 0; i < digits.length(); i++) {
+            char digit = digits.charAt(i);
+            drawGlyph(graphics, digit == '9' ? GLYPH_9 : GLYPH_4, 130 + i * 14, 90);
+        }
+        graphics.dispose();
+        return image;
+    }
+
+    private static void drawGlyph(BufferedImage image, String[] glyph, int left, int top) {
+        for (int row = 0; row < glyph.length; row++) {
+            for (int column = 0; column < glyph[row].length(); column++) {
+                if (glyph[row].charAt(column) == '#') {
+                    image.setRGB(left + column, top + row, Color.BLACK.getRGB());
+                }
+            }
+        }
+    }
+
+    private static void drawGlyph(Graphics2D graphics, String[] glyph, int left, int top) {
+        for (int row = 0; row < glyph.length; row++) {
+            for (int column = 0; column < glyph[row].length(); column++) {
+                if (glyph[row].charAt(column) == '#') {
+                    graphics.fillRect(left + column * 2, top + row * 2, 2, 2);
+                }
+            }
+        }
+    }
+}
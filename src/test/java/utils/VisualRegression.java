@@ -0,0 +1,133 @@
+package utils;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
+
+import javax.imageio.ImageIO;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Screenshot-based visual regression checks against locally stored baselines
+ * Baselines live in src/test/resources/visual-baselines/{browser[-version]}/{state}.png and are created on
+ * first run; pass -Dvisual.update=true to re-record them. Failing states write the actual
+ * screenshot and a diff with the mismatched tiles outlined to target/visual-diffs.
+ */
+public class VisualRegression {
+
+    public static final Path BASELINE_DIR = Paths.get("src", "test", "resources", "visual-baselines");
+    public static final Path DIFF_DIR = Paths.get("target", "visual-diffs");
+
+    private static final TileDiff DIFF = new TileDiff();
+
+    // Baseline fingerprints are hashed once per JVM and reused by every check
+    private static final Map<Path, CachedBaseline> BASELINES = new ConcurrentHashMap<Path, CachedBaseline>();
+
+    private static final class CachedBaseline {
+        final long lastModified;
+        final TileDiff.Fingerprint fingerprint;
+
+        CachedBaseline(long lastModified, TileDiff.Fingerprint fingerprint) {
+            this.lastModified = lastModified;
+            this.fingerprint = fingerprint;
+        }
+    }
+
+    private VisualRegression() {
+    }
+
+    /**
+     * Capture the current viewport and compare it with the stored baseline for a page state
+     * @param driver - WebDriver instance
+     * @param browser - browser label with requested version, e.g. chrome or chrome-116
+     * @param state - page state name, e.g. "login-empty"
+     * @return comparison result; a matching result if the baseline was just recorded
+     */
+    public static TileDiff.Result checkScreen(WebDriver driver, String browser, String state) {
+        Path baselineFile = BASELINE_DIR.resolve(browser).resolve(state + ".png");
+        BufferedImage actual = capture(driver);
+
+        try {
+            if (Boolean.getBoolean("visual.update") || !Files.exists(baselineFile)) {
+                Files.createDirectories(baselineFile.getParent());
+                ImageIO.write(actual, "png", baselineFile.toFile());
+                BASELINES.remove(baselineFile);
+                System.out.println("Visual baseline recorded: " + baselineFile);
+                return new TileDiff.Result(0, 0, Collections.<int[]>emptyList(), false);
+            }
+
+            TileDiff.Result result = DIFF.compare(baseline(baselineFile), actual);
+            System.out.println("Visual check '" + state + "' (" + browser + "): " + result);
+            if (!result.matches()) {
+                writeDiffArtifacts(browser, state, actual, result);
+            }
+            return result;
+        } catch (IOException e) {
+            throw new RuntimeException("Visual check failed for state '" + state + "': " + e.getMessage(), e);
+        }
+    }
+
+    private static TileDiff.Fingerprint baseline(Path baselineFile) throws IOException {
+        long lastModified = Files.getLastModifiedTime(baselineFile).toMillis();
+        CachedBaseline cached = BASELINES.get(baselineFile);
+        if (cached == null || cached.lastModified != lastModified) {
+            BufferedImage image = ImageIO.read(baselineFile.toFile());
+            if (image == null) {
+                throw new IOException("Baseline is not a readable image: " + baselineFile);
+            }
+            cached = new CachedBaseline(lastModified, DIFF.fingerprint(image));
+            BASELINES.put(baselineFile, cached);
+        }
+        return cached.fingerprint;
+    }
+
+    private static BufferedImage capture(WebDriver driver) {
+        // Blur focus so the blinking caret does not make captures flaky
+        ((JavascriptExecutor) driver).executeScript(
+            "if (document.activeElement) { document.activeElement.blur(); }");
+        byte[] png = ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES);
+        try {
+            BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+            if (image == null) {
+                throw new RuntimeException("Screenshot could not be decoded");
+            }
+            return image;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read screenshot: " + e.getMessage(), e);
+        }
+    }
+
+    private static void writeDiffArtifacts(String browser, String state, BufferedImage actual,
+                                           TileDiff.Result result) throws IOException {
+        Path dir = DIFF_DIR.resolve(browser);
+        Files.createDirectories(dir);
+        ImageIO.write(actual, "png", dir.resolve(state + "-actual.png").toFile());
+
+        BufferedImage diff = new BufferedImage(actual.getWidth(), actual.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = diff.createGraphics();
+        try {
+            graphics.drawImage(actual, 0, 0, null);
+            graphics.setColor(Color.RED);
+            graphics.setStroke(new BasicStroke(2));
+            for (int[] tile : result.getMismatchedTiles()) {
+                graphics.drawRect(tile[0], tile[1], tile[2] - 1, tile[3] - 1);
+            }
+        } finally {
+            graphics.dispose();
+        }
+        ImageIO.write(diff, "png", dir.resolve(state + "-diff.png").toFile());
+        System.out.println("Visual diff written to: " + dir.resolve(state + "-diff.png"));
+    }
+}